@@ -0,0 +1,311 @@
+package ru.hse.anstkras.hashtable;
+
+import ru.hse.anstkras.list.LinkedList;
+import ru.hse.anstkras.list.List;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of hashtable of strings that keeps the chars of keys and values in one array
+ * instead of separate objects.
+ * An entry is four ints in the array of entries: the position of its chars, the lengths of its key and value
+ * and the hash of its key, the value follows the key in the array of chars.
+ * The power of two table of slots keeps the indices of the entries, collisions are resolved by linear probing.
+ * Removed entries leave holes in the arrays that are compacted when the arrays are full.
+ */
+public class CompactHashTable {
+    private static final double DEFAULT_LOADFACTOR = 0.5;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int ENTRY_INTS = 4;
+    private static final int POSITION = 0;
+    private static final int KEY_LENGTH = 1;
+    private static final int VALUE_LENGTH = 2;
+    private static final int HASH = 3;
+    // the length of a null value and the key length of a removed entry
+    private static final int ABSENT = -1;
+    private static final int EMPTY = -1;
+    private final double loadfactor;
+    private final Hasher hasher;
+    private char[] chars;
+    private int charsNumber;
+    // the number of chars of the removed entries and the replaced values
+    private int removedCharsNumber;
+    private int[] entries;
+    // the number of used entries including the removed ones
+    private int entriesNumber;
+    private int[] slots;
+    private int size;
+
+    public CompactHashTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CompactHashTable(int capacity) {
+        this(capacity, DEFAULT_LOADFACTOR, new StringHasher());
+    }
+
+    /**
+     * Creates a hashtable for the given number of entries
+     * Throws {@code IllegalArgumentException} in case of negative capacity or load factor not between 0 and 1
+     */
+    public CompactHashTable(int capacity, double loadFactor, Hasher hasher) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity should not be negative");
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Load factor should be between 0 and 1");
+        }
+        this.loadfactor = loadFactor;
+        this.hasher = hasher;
+        allocate(Math.max(capacity, 1), Math.max(capacity, 1) * 8);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean empty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks if the given key is presented in the hash table.
+     * Throws {@code IllegalArgumentException} in case of null argument
+     */
+    public boolean contains(String key) {
+        return findSlot(key, hash(key)) != EMPTY;
+    }
+
+    /**
+     * Looks for a value by the given key.
+     * If the key is not presented in the hash table returns null
+     * Throws {@code IllegalArgumentException} in case of null argument
+     */
+    public String get(String key) {
+        int slot = findSlot(key, hash(key));
+        return slot == EMPTY ? null : value(slots[slot]);
+    }
+
+    /**
+     * Associates the given key with the given value.
+     * If there was an old value associated with the given key,
+     * than returns the old value, otherwise returns null
+     * Null value is allowed
+     * Throws {@code IllegalArgumentException} in case of null key
+     *
+     * @return the old value if exists, null otherwise
+     */
+    public String put(String key, String value) {
+        int hash = hash(key);
+        int valueLength = value == null ? ABSENT : value.length();
+        int slot = findSlot(key, hash);
+        if (slot != EMPTY) {
+            int entry = slots[slot];
+            String oldValue = value(entry);
+            int oldValueLength = entries[entry + VALUE_LENGTH];
+            if (valueLength <= oldValueLength) {
+                // the new value fits in place of the old one
+                writeValue(entry, value);
+                removedCharsNumber += Math.max(oldValueLength, 0) - Math.max(valueLength, 0);
+                return oldValue;
+            }
+            removeAt(slot);
+            insert(key, hash, value);
+            return oldValue;
+        }
+        insert(key, hash, value);
+        return null;
+    }
+
+    /**
+     * Removes the entry by the given key if exists, returns null otherwise.
+     * Throws {@code IllegalArgumentException} in case of null argument
+     *
+     * @return the value of removed entry if exists, null otherwise
+     */
+    public String remove(String key) {
+        int slot = findSlot(key, hash(key));
+        if (slot == EMPTY) {
+            return null;
+        }
+        String value = value(slots[slot]);
+        removeAt(slot);
+        return value;
+    }
+
+    /** Delete all the values in the hashtable and shrinks its capacity */
+    public void clear() {
+        allocate(DEFAULT_CAPACITY, DEFAULT_CAPACITY * 8);
+        charsNumber = 0;
+        removedCharsNumber = 0;
+        entriesNumber = 0;
+        size = 0;
+    }
+
+    /**
+     * Constructs the list of all entries in the hashtable in arbitrary order
+     *
+     * @return the list of all entries in the hashtable in arbitrary order
+     */
+    public List entries() {
+        var list = new LinkedList();
+        for (int entry = 0; entry < entriesNumber * ENTRY_INTS; entry += ENTRY_INTS) {
+            if (entries[entry + KEY_LENGTH] != ABSENT) {
+                list.add(new HashTable.Entry(key(entry), value(entry)));
+            }
+        }
+        return list;
+    }
+
+    private int hash(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException(HashTable.NULL_KEY_ERROR);
+        }
+        return hasher.hash(key);
+    }
+
+    // the home slot of the hash, its bits are mixed so that the lower bits depend on all of them
+    private int homeSlot(int hash) {
+        hash *= 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (slots.length - 1);
+    }
+
+    private void allocate(int entriesCapacity, int charsCapacity) {
+        entries = new int[entriesCapacity * ENTRY_INTS];
+        chars = new char[charsCapacity];
+        int slotsNumber = Integer.highestOneBit((int) Math.ceil(entriesCapacity / loadfactor)) << 1;
+        slots = new int[slotsNumber];
+        Arrays.fill(slots, EMPTY);
+    }
+
+    private String key(int entry) {
+        return new String(chars, entries[entry + POSITION], entries[entry + KEY_LENGTH]);
+    }
+
+    private String value(int entry) {
+        int valueLength = entries[entry + VALUE_LENGTH];
+        if (valueLength == ABSENT) {
+            return null;
+        }
+        return new String(chars, entries[entry + POSITION] + entries[entry + KEY_LENGTH], valueLength);
+    }
+
+    private void writeValue(int entry, String value) {
+        if (value == null) {
+            entries[entry + VALUE_LENGTH] = ABSENT;
+            return;
+        }
+        value.getChars(0, value.length(), chars, entries[entry + POSITION] + entries[entry + KEY_LENGTH]);
+        entries[entry + VALUE_LENGTH] = value.length();
+    }
+
+    // compares the key with the chars of the entry without creating a string
+    private boolean hasKey(int entry, String key) {
+        int length = entries[entry + KEY_LENGTH];
+        if (length != key.length()) {
+            return false;
+        }
+        int position = entries[entry + POSITION];
+        for (int i = 0; i < length; i++) {
+            if (chars[position + i] != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // returns the slot of the key or EMPTY if there is no such key
+    private int findSlot(String key, int hash) {
+        int mask = slots.length - 1;
+        for (int slot = homeSlot(hash); ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == EMPTY) {
+                return EMPTY;
+            }
+            if (entries[entry + HASH] == hash && hasKey(entry, key)) {
+                return slot;
+            }
+        }
+    }
+
+    private void insertSlot(int entry) {
+        int mask = slots.length - 1;
+        int slot = homeSlot(entries[entry + HASH]);
+        while (slots[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry;
+    }
+
+    private void insert(String key, int hash, String value) {
+        int length = key.length() + (value == null ? 0 : value.length());
+        if (entriesNumber * ENTRY_INTS == entries.length || chars.length - charsNumber < length) {
+            rebuild(length);
+        }
+        int entry = entriesNumber++ * ENTRY_INTS;
+        entries[entry + POSITION] = charsNumber;
+        entries[entry + KEY_LENGTH] = key.length();
+        entries[entry + HASH] = hash;
+        key.getChars(0, key.length(), chars, charsNumber);
+        writeValue(entry, value);
+        charsNumber += length;
+        insertSlot(entry);
+        size++;
+    }
+
+    // removes the entry of the slot, shifting the following slots back instead of leaving a tombstone
+    private void removeAt(int slot) {
+        int entry = slots[slot];
+        int mask = slots.length - 1;
+        for (int next = (slot + 1) & mask; slots[next] != EMPTY; next = (next + 1) & mask) {
+            int home = homeSlot(entries[slots[next] + HASH]);
+            // the entry can move to the freed slot if its home slot is not between the freed slot and its slot
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                slots[slot] = slots[next];
+                slot = next;
+            }
+        }
+        slots[slot] = EMPTY;
+
+        removedCharsNumber += entries[entry + KEY_LENGTH] + Math.max(entries[entry + VALUE_LENGTH], 0);
+        entries[entry + KEY_LENGTH] = ABSENT;
+        size--;
+    }
+
+    // compacts the arrays, growing them if less than a half of their space was removed
+    private void rebuild(int extraChars) {
+        int[] oldEntries = entries;
+        char[] oldChars = chars;
+        int oldEntriesNumber = entriesNumber;
+        int entriesCapacity = oldEntries.length / ENTRY_INTS;
+        if (size >= entriesCapacity / 2) {
+            entriesCapacity *= 2;
+        }
+        int liveCharsNumber = charsNumber - removedCharsNumber;
+        int charsCapacity = oldChars.length;
+        while (charsCapacity - liveCharsNumber < extraChars || liveCharsNumber >= charsCapacity / 2) {
+            charsCapacity *= 2;
+        }
+        allocate(entriesCapacity, charsCapacity);
+
+        entriesNumber = 0;
+        charsNumber = 0;
+        removedCharsNumber = 0;
+        for (int oldEntry = 0; oldEntry < oldEntriesNumber * ENTRY_INTS; oldEntry += ENTRY_INTS) {
+            int keyLength = oldEntries[oldEntry + KEY_LENGTH];
+            if (keyLength == ABSENT) {
+                continue;
+            }
+            int valueLength = oldEntries[oldEntry + VALUE_LENGTH];
+            int length = keyLength + Math.max(valueLength, 0);
+            int entry = entriesNumber++ * ENTRY_INTS;
+            System.arraycopy(oldChars, oldEntries[oldEntry + POSITION], chars, charsNumber, length);
+            entries[entry + POSITION] = charsNumber;
+            entries[entry + KEY_LENGTH] = keyLength;
+            entries[entry + VALUE_LENGTH] = valueLength;
+            entries[entry + HASH] = oldEntries[oldEntry + HASH];
+            charsNumber += length;
+            insertSlot(entry);
+        }
+    }
+}
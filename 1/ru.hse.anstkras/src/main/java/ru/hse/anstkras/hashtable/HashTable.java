@@ -3,7 +3,11 @@ package ru.hse.anstkras.hashtable;
 import ru.hse.anstkras.list.LinkedList;
 import ru.hse.anstkras.list.List;
 
-/** Implementation of hashtable based on separate chaining technique */
+/**
+ * Implementation of hashtable based on separate chaining technique
+ * The entries keep the hashes of their keys, so growing the table moves the existing nodes
+ * to the new lists without hashing the keys again
+ */
 public class HashTable {
     protected static final String NULL_KEY_ERROR = "Null can not be a key in hash table";
     protected static final double DEFAULT_LOADFACTOR = 0.75;
@@ -85,9 +89,10 @@ public class HashTable {
             throw new IllegalArgumentException(NULL_KEY_ERROR);
         }
 
-        int hashKey = hashMod(key);
+        int hash = hasher.hash(key);
+        int hashKey = indexFor(hash);
         Entry entry = lists[hashKey].remove(new Entry(key, null));
-        lists[hashKey].add(new Entry(key, value));
+        lists[hashKey].add(new Entry(key, value, hash));
         if (entry == null) {
             size++;
             checkLoadFactor();
@@ -130,9 +135,10 @@ public class HashTable {
      */
     public List entries() {
         var entries = new LinkedList();
-        System.out.println(entries.getClass());
         for (List list : lists) {
-            entries.concat(list);
+            for (Entry entry : list) {
+                entries.add(entry);
+            }
         }
         return entries;
     }
@@ -144,16 +150,25 @@ public class HashTable {
     }
 
     protected final int hashMod(String string) {
-        return hasher.hash(string) % capacity;
+        return indexFor(hasher.hash(string));
+    }
+
+    protected final int indexFor(int hash) {
+        return Math.floorMod(hash, capacity);
     }
 
+    // moves the nodes to a twice larger table using the cached hashes
     protected final void rebuild() {
-        var newHashTable = new HashTable(capacity * 2, loadfactor, hasher);
-        List entries = entries();
-        for (Entry entry : entries) {
-            newHashTable.put(entry.key, entry.value);
+        int newCapacity = capacity * 2;
+        List[] newLists = new LinkedList[newCapacity];
+        for (int i = 0; i < newCapacity; i++) {
+            newLists[i] = new LinkedList();
         }
-        assignLists(newHashTable);
+        for (List list : lists) {
+            list.transferTo(newLists, entry -> Math.floorMod(entry.hash, newCapacity));
+        }
+        lists = newLists;
+        capacity = newCapacity;
     }
 
     protected final void assignLists(HashTable hashTable) {
@@ -171,12 +186,19 @@ public class HashTable {
     public static class Entry {
         protected String key;
         protected String value;
+        // the hash of the key given by the hasher of the hashtable
+        protected int hash;
 
         public Entry(String key, String value) {
             this.key = key;
             this.value = value;
         }
 
+        protected Entry(String key, String value, int hash) {
+            this(key, value);
+            this.hash = hash;
+        }
+
         @Override
         public boolean equals(Object obj) {
             if (obj == null || getClass() != obj.getClass()) {
@@ -0,0 +1,12 @@
+package ru.hse.anstkras.hashtable;
+
+/**
+ * Hashing by String.hashCode, the polynomial hash of the chars modulo 2^32.
+ * The hash is cached in the string and is computed by vectorized code on recent JVMs
+ */
+public class StringHasher implements Hasher {
+    @Override
+    public int hash(String string) {
+        return string.hashCode();
+    }
+}
@@ -3,6 +3,7 @@ package ru.hse.anstkras.list;
 import ru.hse.anstkras.hashtable.HashTable;
 
 import java.util.Iterator;
+import java.util.function.ToIntFunction;
 
 /** Doubly linked list implementation of the List interface */
 
@@ -153,6 +154,32 @@ public class LinkedList implements List {
         }
     }
 
+    /**
+     * Moves every element of this list to the end of the list with the index given by the function,
+     * the nodes are relinked to the target lists of the same class instead of being created again
+     *
+     * @param lists     lists to move the elements to
+     * @param listIndex function that returns the index of the list for the element
+     */
+    @Override
+    public void transferTo(List[] lists, ToIntFunction<HashTable.Entry> listIndex) {
+        ListNode node = head;
+        while (node != null) {
+            ListNode next = node.next;
+            List target = lists[listIndex.applyAsInt(node.value)];
+            if (target.getClass() == getClass()) {
+                node.next = null;
+                ((LinkedList) target).addNode(node);
+            } else {
+                target.add(node.value);
+            }
+            node = next;
+        }
+        head = null;
+        tail = null;
+        size = 0;
+    }
+
     /**
      * Returns an iterator that traverses the list in
      * the order the elements were added
@@ -178,6 +205,18 @@ public class LinkedList implements List {
         };
     }
 
+    private void addNode(ListNode node) {
+        if (tail == null) {
+            node.prev = null;
+            head = node;
+        } else {
+            tail.next = node;
+            node.prev = tail;
+        }
+        tail = node;
+        size++;
+    }
+
     protected static class ListNode {
         protected HashTable.Entry value;
         protected ListNode next;
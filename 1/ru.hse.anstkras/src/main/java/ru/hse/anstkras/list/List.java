@@ -2,6 +2,8 @@ package ru.hse.anstkras.list;
 
 import ru.hse.anstkras.hashtable.HashTable;
 
+import java.util.function.ToIntFunction;
+
 /** An ordered collection of elements. */
 
 public interface List extends Iterable<HashTable.Entry> {
@@ -36,4 +38,18 @@ public interface List extends Iterable<HashTable.Entry> {
      * @param other list to concatenate
      */
     void concat(List other);
+
+    /**
+     * Moves every element of this list to the end of the list with the index given by the function,
+     * this list becomes empty
+     *
+     * @param lists     lists to move the elements to
+     * @param listIndex function that returns the index of the list for the element
+     */
+    default void transferTo(List[] lists, ToIntFunction<HashTable.Entry> listIndex) {
+        for (HashTable.Entry entry : this) {
+            lists[listIndex.applyAsInt(entry)].add(entry);
+        }
+        clear();
+    }
 }
@@ -0,0 +1,118 @@
+package ru.hse.anstkras.hashtable;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactHashTableTest {
+    private CompactHashTable hashTable;
+
+
+    private void fill(CompactHashTable hashTable, int n) {
+        for (int i = 0; i < n; i++) {
+            hashTable.put("key" + i, "value" + i);
+        }
+    }
+
+    @BeforeEach
+    void init() {
+        hashTable = new CompactHashTable();
+    }
+
+    @AfterEach
+    void makeNull() {
+        hashTable = null;
+    }
+
+    @Test
+    void empty() {
+        assertTrue(hashTable.empty());
+    }
+
+    @Test
+    void size() {
+        hashTable.put("key0", "value0");
+        hashTable.put("key1", "value1");
+        assertEquals(2, hashTable.size());
+    }
+
+    @Test
+    void get() {
+        fill(hashTable, 50);
+        assertEquals("value21", hashTable.get("key21"));
+        assertTrue(hashTable.contains("key21"));
+        assertNull(hashTable.get("123"));
+    }
+
+    @Test
+    void putIdenticalKeys() {
+        assertNull(hashTable.put("123", "1"));
+        assertEquals("1", hashTable.put("123", "longer value"));
+        assertEquals("longer value", hashTable.put("123", "2"));
+        assertEquals("2", hashTable.get("123"));
+        assertEquals(1, hashTable.size());
+    }
+
+    @Test
+    void nullValues() {
+        hashTable.put("key", null);
+        assertTrue(hashTable.contains("key"));
+        assertNull(hashTable.put("key", "value"));
+        assertEquals("value", hashTable.put("key", null));
+        assertNull(hashTable.get("key"));
+        assertThrows(IllegalArgumentException.class, () -> hashTable.put(null, "value"));
+    }
+
+    @Test
+    void remove() {
+        fill(hashTable, 50);
+        assertEquals("value21", hashTable.remove("key21"));
+        assertFalse(hashTable.contains("key21"));
+        assertNull(hashTable.remove("key21"));
+    }
+
+    @Test
+    void clear() {
+        fill(hashTable, 100);
+        hashTable.clear();
+        assertTrue(hashTable.empty());
+        assertNull(hashTable.get("key1"));
+    }
+
+    @Test
+    void entries() {
+        fill(hashTable, 100);
+        hashTable.remove("key50");
+        int count = 0;
+        for (HashTable.Entry entry : hashTable.entries()) {
+            assertEquals("value" + entry.key.substring(3), entry.value);
+            count++;
+        }
+        assertEquals(99, count);
+    }
+
+    @Test
+    void randomOperations() {
+        var random = new Random(42);
+        var expected = new HashMap<String, String>();
+        for (int i = 0; i < 200_000; i++) {
+            String key = "key" + random.nextInt(10_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), hashTable.remove(key));
+            } else {
+                String value = random.nextInt(10) == 0 ? null : "value" + random.nextInt(1 << random.nextInt(20));
+                assertEquals(expected.put(key, value), hashTable.put(key, value));
+            }
+            assertEquals(expected.size(), hashTable.size());
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(expected.get("key" + i), hashTable.get("key" + i));
+            assertEquals(expected.containsKey("key" + i), hashTable.contains("key" + i));
+        }
+    }
+}
@@ -4,6 +4,9 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class HashTableTest {
@@ -94,4 +97,51 @@ class HashTableTest {
         hashTable.clear();
         assertTrue(hashTable.empty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void growthKeepsEntries() {
+        fill(hashTable, 10_000);
+        assertEquals(10_000, hashTable.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals("value" + i, hashTable.get("key" + i));
+        }
+    }
+
+    @Test
+    void growthDoesNotPrint() {
+        PrintStream out = System.out;
+        var output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output));
+        try {
+            fill(hashTable, 1000);
+            hashTable.entries();
+        } finally {
+            System.setOut(out);
+        }
+        assertEquals(0, output.size());
+    }
+
+    @Test
+    void entriesDoNotChangeTable() {
+        fill(hashTable, 5);
+        int count = 0;
+        for (HashTable.Entry ignored : hashTable.entries()) {
+            count++;
+        }
+        assertEquals(5, count);
+        hashTable.remove("key0");
+        hashTable.put("key5", "value5");
+        for (int i = 1; i < 6; i++) {
+            assertEquals("value" + i, hashTable.get("key" + i));
+        }
+        assertNull(hashTable.get("key0"));
+    }
+
+    @Test
+    void keysWithNegativeHashes() {
+        hashTable.put("-", "1");
+        hashTable.put("--", "2");
+        assertEquals("1", hashTable.get("-"));
+        assertEquals("2", hashTable.remove("--"));
+    }
+}
@@ -115,4 +115,21 @@ class LinkedListTest {
         }
         assertEquals(100, count);
     }
-}
\ No newline at end of file
+
+    @Test
+    void transferTo() {
+        fill(list, 10);
+        List[] lists = {new LinkedList(), new LinkedList()};
+        lists[1].add(new HashTable.Entry("first", null));
+        list.transferTo(lists, entry -> entry.equals(new HashTable.Entry("key3", null)) ? 0 : 1);
+        assertTrue(list.empty());
+        assertEquals(1, lists[0].size());
+        assertTrue(lists[0].contains(new HashTable.Entry("key3", null)));
+        assertEquals(10, lists[1].size());
+        int count = 0;
+        for (HashTable.Entry ignored : lists[1]) {
+            count++;
+        }
+        assertEquals(10, count);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.hse.anstkras.hashtable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookups of keys that all have the same hash code.
+ * Comparable keys are kept in a tree bucket, so their lookup time grows logarithmically with the size,
+ * the keys that are not Comparable stay in a list bucket and are looked up in linear time
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class CollidingKeysBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    private LinkedHashTable<Integer, Integer> comparableKeys;
+    private LinkedHashTable<Key, Integer> nonComparableKeys;
+    private Integer[] integers;
+    private Key[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        comparableKeys = new LinkedHashTable<>(key -> 0);
+        nonComparableKeys = new LinkedHashTable<>(key -> 0);
+        integers = new Integer[size];
+        keys = new Key[size];
+        for (int i = 0; i < size; i++) {
+            integers[i] = i;
+            keys[i] = new Key(i);
+            comparableKeys.put(integers[i], i);
+            nonComparableKeys.put(keys[i], i);
+        }
+    }
+
+    @Benchmark
+    public Integer getComparable() {
+        next = next + 1 == size ? 0 : next + 1;
+        return comparableKeys.get(integers[next]);
+    }
+
+    @Benchmark
+    public Integer getNonComparable() {
+        next = next + 1 == size ? 0 : next + 1;
+        return nonComparableKeys.get(keys[next]);
+    }
+
+    private static class Key {
+        private final int value;
+
+        private Key(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.hse.anstkras.hashtable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares ConcurrentLinkedHashTable with a synchronized LinkedHashTable
+ * on a mix of reads and writes from several threads, run with -t to change the number of threads
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+public class ConcurrentAccessBenchmark {
+    private static final int KEYS_NUMBER = 100_000;
+
+    @Param({"CONCURRENT", "SYNCHRONIZED"})
+    public String implementation;
+
+    // the share of writes in percent
+    @Param({"10", "50"})
+    public int writePercent;
+
+    private Map<Integer, Integer> map;
+    private Integer[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (implementation.equals("CONCURRENT")) {
+            map = new ConcurrentLinkedHashTable<>();
+        } else {
+            map = Collections.synchronizedMap(new LinkedHashTable<>());
+        }
+        keys = new Integer[KEYS_NUMBER];
+        for (int i = 0; i < KEYS_NUMBER; i++) {
+            keys[i] = i;
+            map.put(keys[i], i);
+        }
+    }
+
+    @Benchmark
+    public Integer readWrite() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = keys[random.nextInt(KEYS_NUMBER)];
+        if (random.nextInt(100) < writePercent) {
+            return map.put(key, key);
+        }
+        return map.get(key);
+    }
+}
@@ -0,0 +1,75 @@
+package ru.hse.anstkras.hashtable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookups in a filled LinkedHashTable.
+ * Run with the gc profiler (enabled in build.gradle) to see the allocation rate,
+ * gc.alloc.rate.norm should be 0 bytes per operation for all the benchmarks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class LookupBenchmark {
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private LinkedHashTable<Integer, Integer> hashTable;
+    // boxed in advance so that the benchmarks measure the table, not the boxing
+    private Integer[] presentKeys;
+    private Integer[] absentKeys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hashTable = new LinkedHashTable<>();
+        presentKeys = new Integer[size];
+        absentKeys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            presentKeys[i] = i * 2;
+            absentKeys[i] = i * 2 + 1;
+            hashTable.put(presentKeys[i], i);
+        }
+    }
+
+    @Benchmark
+    public Integer getPresent() {
+        return hashTable.get(nextKey(presentKeys));
+    }
+
+    @Benchmark
+    public Integer getAbsent() {
+        return hashTable.get(nextKey(absentKeys));
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return hashTable.contains(nextKey(presentKeys));
+    }
+
+    @Benchmark
+    public Integer removeAbsent() {
+        return hashTable.remove(nextKey(absentKeys));
+    }
+
+    @Benchmark
+    public Integer putExisting() {
+        Integer key = nextKey(presentKeys);
+        return hashTable.put(key, key);
+    }
+
+    private Integer nextKey(Integer[] keys) {
+        next = next + 1 == keys.length ? 0 : next + 1;
+        return keys[next];
+    }
+}
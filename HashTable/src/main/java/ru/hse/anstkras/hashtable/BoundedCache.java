@@ -0,0 +1,266 @@
+package ru.hse.anstkras.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Cache of a bounded size or weight built on access ordered LinkedHashTables.
+ * When the cache is full the least recently used entries are evicted in constant time,
+ * with W_TINY_LFU policy rarely used entries are not admitted in place of frequently used ones.
+ * Null keys and values are not allowed
+ * The cache is not thread safe
+ */
+public class BoundedCache<K, V> {
+    private static final double LOAD_FACTOR = 0.75;
+    private static final int INITIAL_CAPACITY = 16;
+    // the share of the maximum weight given to the window of new entries
+    private static final int WINDOW_PERCENT = 1;
+    private final long maximumWeight;
+    private final @NotNull ToLongBiFunction<? super K, ? super V> weigher;
+    private final @NotNull EvictionPolicy policy;
+    // new entries in W_TINY_LFU mode, null in LRU mode
+    private final @Nullable LinkedHashTable<K, Node<V>> window;
+    private final @NotNull LinkedHashTable<K, Node<V>> main;
+    private final @Nullable FrequencySketch sketch;
+    private final long windowMaximumWeight;
+    private final long mainMaximumWeight;
+    private long windowWeight;
+    private long mainWeight;
+    private long hitsNumber;
+    private long missesNumber;
+    private long evictionsNumber;
+
+    /** Creates a LRU cache that keeps at most the given number of entries */
+    public BoundedCache(long maximumSize) {
+        this(maximumSize, EvictionPolicy.LRU);
+    }
+
+    /** Creates a cache that keeps at most the given number of entries */
+    public BoundedCache(long maximumSize, @NotNull EvictionPolicy policy) {
+        this(maximumSize, (key, value) -> 1, policy);
+    }
+
+    /**
+     * Creates a cache that keeps entries of at most the given total weight
+     * @throws IllegalArgumentException in case of non positive maximum weight
+     */
+    public BoundedCache(long maximumWeight,
+                        @NotNull ToLongBiFunction<? super K, ? super V> weigher,
+                        @NotNull EvictionPolicy policy) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight should be positive");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.policy = policy;
+        main = new LinkedHashTable<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+        if (policy == EvictionPolicy.W_TINY_LFU) {
+            window = new LinkedHashTable<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+            sketch = new FrequencySketch(maximumWeight);
+            windowMaximumWeight = Math.max(1, maximumWeight * WINDOW_PERCENT / 100);
+        } else {
+            window = null;
+            sketch = null;
+            windowMaximumWeight = 0;
+        }
+        mainMaximumWeight = maximumWeight - windowMaximumWeight;
+    }
+
+    /**
+     * Looks for a value by the given key and records a hit or a miss.
+     * If the key is not presented in the cache returns null
+     * @throws  IllegalArgumentException in case of null argument
+     */
+    @Nullable
+    public V get(@NotNull K key) {
+        Node<V> node = find(key);
+        if (node == null) {
+            missesNumber++;
+            return null;
+        }
+        hitsNumber++;
+        return node.value;
+    }
+
+    /**
+     * Looks for a value by the given key, in case of a miss computes it with the loader and puts it to the cache.
+     * Null values returned by the loader are not cached
+     * @throws  IllegalArgumentException in case of null key
+     */
+    @Nullable
+    public V get(@NotNull K key, @NotNull Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                // the access is already recorded by the lookup
+                put(key, value, false);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Associates the given key with the given value and evicts entries if the cache becomes too heavy.
+     * An entry heavier than the maximum weight is not cached
+     * @throws  IllegalArgumentException in case of null key or value or negative weight
+     */
+    public void put(@NotNull K key, @NotNull V value) {
+        put(key, value, true);
+    }
+
+    private void put(@NotNull K key, @NotNull V value, boolean isAccessRecorded) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Null keys and values are not allowed");
+        }
+        long weight = weigher.applyAsLong(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight should not be negative");
+        }
+        if (isAccessRecorded) {
+            recordAccess(key);
+        }
+        invalidate(key);
+        if (weight > maximumWeight) {
+            evictionsNumber++;
+            return;
+        }
+
+        var node = new Node<>(value, weight);
+        if (window == null) {
+            main.put(key, node);
+            mainWeight += weight;
+            while (mainWeight > mainMaximumWeight) {
+                evictEldest();
+            }
+            return;
+        }
+        window.put(key, node);
+        windowWeight += weight;
+        while (windowWeight > windowMaximumWeight) {
+            LinkedHashTable.Entry<K, Node<V>> candidate = window.eldestEntry();
+            window.removeEntry(candidate);
+            windowWeight -= candidate.getValue().weight;
+            admit(candidate);
+        }
+    }
+
+    /**
+     * Removes the entry by the given key if exists
+     * @throws  IllegalArgumentException in case of null argument
+     */
+    public void invalidate(@NotNull K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null keys are not allowed");
+        }
+        Node<V> node;
+        if (window != null && (node = window.remove(key)) != null) {
+            windowWeight -= node.weight;
+        } else if ((node = main.remove(key)) != null) {
+            mainWeight -= node.weight;
+        }
+    }
+
+    /** Removes all the entries, the statistics are kept */
+    public void invalidateAll() {
+        if (window != null) {
+            window.clear();
+        }
+        main.clear();
+        windowWeight = 0;
+        mainWeight = 0;
+    }
+
+    /** Returns the number of cached entries */
+    public int size() {
+        return main.size() + (window == null ? 0 : window.size());
+    }
+
+    /** Returns the total weight of cached entries */
+    public long getWeight() {
+        return windowWeight + mainWeight;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    @NotNull
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    @NotNull
+    public CacheStats getStats() {
+        return new CacheStats(hitsNumber, missesNumber, evictionsNumber);
+    }
+
+    @Nullable
+    private Node<V> find(@NotNull K key) {
+        recordAccess(key);
+        Node<V> node = window == null ? null : window.get(key);
+        return node == null ? main.get(key) : node;
+    }
+
+    private void recordAccess(@NotNull K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null keys are not allowed");
+        }
+        if (sketch != null) {
+            sketch.increment(key.hashCode());
+        }
+    }
+
+    /**
+     * Moves the entry evicted from the window to the main part if it is used more frequently
+     * than every victim of the main part that has to be evicted to make room for it.
+     * The victims are only evicted once the candidate is admitted
+     */
+    private void admit(@NotNull LinkedHashTable.Entry<K, Node<V>> candidate) {
+        long weight = candidate.getValue().weight;
+        if (weight > mainMaximumWeight) {
+            evictionsNumber++;
+            return;
+        }
+        int candidateFrequency = sketch.frequency(candidate.getKey().hashCode());
+        long freedWeight = 0;
+        int victimsNumber = 0;
+        Iterator<Map.Entry<K, Node<V>>> victims = main.entrySet().iterator();
+        while (mainWeight - freedWeight + weight > mainMaximumWeight) {
+            Map.Entry<K, Node<V>> victim = victims.next();
+            if (candidateFrequency <= sketch.frequency(victim.getKey().hashCode())) {
+                evictionsNumber++;
+                return;
+            }
+            freedWeight += victim.getValue().weight;
+            victimsNumber++;
+        }
+        for (int i = 0; i < victimsNumber; i++) {
+            evictEldest();
+        }
+        main.put(candidate.getKey(), candidate.getValue());
+        mainWeight += weight;
+    }
+
+    private void evictEldest() {
+        LinkedHashTable.Entry<K, Node<V>> eldest = main.eldestEntry();
+        main.removeEntry(eldest);
+        mainWeight -= eldest.getValue().weight;
+        evictionsNumber++;
+    }
+
+    private static class Node<V> {
+        private final @NotNull V value;
+        private final long weight;
+
+        private Node(@NotNull V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.hse.anstkras.hashtable;
+
+/** Snapshot of the bounded cache's statistics */
+public class CacheStats {
+    private final long hitsNumber;
+    private final long missesNumber;
+    private final long evictionsNumber;
+
+    CacheStats(long hitsNumber, long missesNumber, long evictionsNumber) {
+        this.hitsNumber = hitsNumber;
+        this.missesNumber = missesNumber;
+        this.evictionsNumber = evictionsNumber;
+    }
+
+    /** Returns the number of lookups that found a value */
+    public long getHitsNumber() {
+        return hitsNumber;
+    }
+
+    /** Returns the number of lookups that did not find a value */
+    public long getMissesNumber() {
+        return missesNumber;
+    }
+
+    /** Returns the number of entries evicted or not admitted because the cache was full */
+    public long getEvictionsNumber() {
+        return evictionsNumber;
+    }
+
+    /** Returns the ratio of hits to all lookups, 1 if there were no lookups */
+    public double getHitRate() {
+        long lookupsNumber = hitsNumber + missesNumber;
+        return lookupsNumber == 0 ? 1 : (double) hitsNumber / lookupsNumber;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + hitsNumber + ", misses=" + missesNumber + ", evictions=" + evictionsNumber;
+    }
+}
@@ -0,0 +1,60 @@
+package ru.hse.anstkras.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+
+/** Snapshot of the lengths of the bucket chains of a hashtable */
+public class ChainLengthStatistics {
+    private final int bucketsNumber;
+    private final int nonEmptyBucketsNumber;
+    private final int entriesNumber;
+    private final int maxChainLength;
+    // the number of buckets of every chain length up to the maximal one
+    private final @NotNull int[] chainLengthCounts;
+
+    ChainLengthStatistics(@NotNull int[] chainLengths) {
+        bucketsNumber = chainLengths.length;
+        int maxLength = 0;
+        for (int length : chainLengths) {
+            maxLength = Math.max(maxLength, length);
+        }
+        maxChainLength = maxLength;
+        chainLengthCounts = new int[maxLength + 1];
+        int entries = 0;
+        for (int length : chainLengths) {
+            chainLengthCounts[length]++;
+            entries += length;
+        }
+        entriesNumber = entries;
+        nonEmptyBucketsNumber = bucketsNumber - chainLengthCounts[0];
+    }
+
+    public int getBucketsNumber() {
+        return bucketsNumber;
+    }
+
+    public int getNonEmptyBucketsNumber() {
+        return nonEmptyBucketsNumber;
+    }
+
+    public int getMaxChainLength() {
+        return maxChainLength;
+    }
+
+    /** Returns the average length of the non empty chains, 0 if there are no entries */
+    public double getAverageChainLength() {
+        return nonEmptyBucketsNumber == 0 ? 0 : (double) entriesNumber / nonEmptyBucketsNumber;
+    }
+
+    /** Returns the number of buckets which chains have the given length */
+    public int getBucketsNumber(int chainLength) {
+        return chainLength < chainLengthCounts.length ? chainLengthCounts[chainLength] : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ChainLengthStatistics{bucketsNumber=" + bucketsNumber
+                + ", nonEmptyBucketsNumber=" + nonEmptyBucketsNumber
+                + ", maxChainLength=" + maxChainLength
+                + ", averageChainLength=" + getAverageChainLength() + "}";
+    }
+}
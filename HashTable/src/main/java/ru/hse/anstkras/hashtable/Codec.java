@@ -0,0 +1,50 @@
+package ru.hse.anstkras.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+
+/** Interface that converts keys and values of MappedHashTable to bytes and back */
+public interface Codec<T> {
+    @NotNull
+    byte[] encode(@NotNull T value);
+
+    @NotNull
+    T decode(@NotNull byte[] bytes);
+
+    /** Returns the codec that stores byte arrays as they are, so the keys are compared by contents */
+    @NotNull
+    static Codec<byte[]> bytes() {
+        return new Codec<>() {
+            @NotNull
+            @Override
+            public byte[] encode(@NotNull byte[] value) {
+                return value;
+            }
+
+            @NotNull
+            @Override
+            public byte[] decode(@NotNull byte[] bytes) {
+                return bytes;
+            }
+        };
+    }
+
+    /** Returns the codec that stores strings in UTF-8 */
+    @NotNull
+    static Codec<String> strings() {
+        return new Codec<>() {
+            @NotNull
+            @Override
+            public byte[] encode(@NotNull String value) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @NotNull
+            @Override
+            public String decode(@NotNull byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
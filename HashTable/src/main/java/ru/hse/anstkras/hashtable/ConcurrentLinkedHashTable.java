@@ -0,0 +1,616 @@
+package ru.hse.anstkras.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Thread-safe hashtable that keeps the entries in the order of insertion like LinkedHashTable.
+ * Null keys and null values are not allowed
+ *
+ * Keys are split between segments by their mixed hashes. Every segment has its own lock
+ * and its own table of buckets which is resized independently of the other segments.
+ * Reads do not take locks, a read that misses the key while the segment is being resized is retried.
+ * Every update of a key, including compute and merge, is done atomically under the segment lock.
+ *
+ * Every mapping is a node that is also linked into the lock-free list of the insertion order.
+ * Put replaces the node, so the key moves to the end of the order, like it does in LinkedHashTable.
+ * The other updates, including replace, compute, merge and setValue of an entry, change the value
+ * of the node in place and keep the position of the key.
+ * Replaced and removed nodes are marked and unlinked from the order list in batches.
+ * Iteration is weakly consistent: it never throws ConcurrentModificationException,
+ * and it reflects the mappings as they were at some point at or after the creation of the iterator.
+ */
+public class ConcurrentLinkedHashTable<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double LOAD_FACTOR = 0.75;
+    // the order list is swept once it has more dead nodes than this and than live ones
+    private static final int MIN_DEAD_NODES_TO_SWEEP = 64;
+    private final Segment<K, V>[] segments;
+    private final int segmentShift;
+    // the sentinel of the insertion order list
+    private final Node<K, V> head = new Node<>(null, 0, null, null);
+    private final AtomicReference<Node<K, V>> tail = new AtomicReference<>(head);
+    private final AtomicInteger deadNodes = new AtomicInteger();
+    private final AtomicBoolean isSweeping = new AtomicBoolean();
+    private Set<Map.Entry<K, V>> cachedEntrySet = null;
+
+    public ConcurrentLinkedHashTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ConcurrentLinkedHashTable(int capacity) {
+        this(capacity, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates a hashtable for about capacity entries
+     * that supports about concurrencyLevel simultaneously updating threads
+     * @throws IllegalArgumentException in case of negative capacity or not positive concurrency level
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLinkedHashTable(int capacity, int concurrencyLevel) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity should not be negative");
+        }
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Concurrency level should be positive");
+        }
+        int segmentsNumber = powerOfTwo(Math.min(concurrencyLevel, 1 << 16));
+        segmentShift = 32 - Integer.numberOfTrailingZeros(segmentsNumber);
+        segments = (Segment<K, V>[]) new Segment[segmentsNumber];
+        int segmentCapacity = powerOfTwo(Math.max(2, (int) (capacity / LOAD_FACTOR) / segmentsNumber));
+        for (int i = 0; i < segmentsNumber; i++) {
+            segments[i] = new Segment<>(segmentCapacity);
+        }
+    }
+
+    @Override
+    public int size() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.count;
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Segment<K, V> segment : segments) {
+            if (segment.count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean empty() {
+        return isEmpty();
+    }
+
+    /**
+     * Checks if the given key is presented in the hash table.
+     * @throws  IllegalArgumentException in case of null argument
+     */
+    public boolean contains(@NotNull K key) {
+        return containsKey(key);
+    }
+
+    /**
+     * Checks if the given key is presented in the hash table.
+     * @throws  IllegalArgumentException in case of null argument
+     */
+    @Override
+    public boolean containsKey(@NotNull Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Looks for a value by the given key without locking.
+     * If the key is not presented in the hash table returns null
+     * @throws  IllegalArgumentException in case of null argument
+     */
+    @Override
+    @Nullable
+    public V get(@NotNull Object key) {
+        int hash = hash(key);
+        Node<K, V> node = segmentFor(hash).find(key, hash);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Associates the given key with the given value and moves the key
+     * to the end of the insertion order.
+     * @throws  IllegalArgumentException in case of null key or value
+     *
+     * @return the old value if exists, null otherwise
+     */
+    @Override
+    @Nullable
+    public V put(@NotNull K key, @NotNull V value) {
+        checkValue(value);
+        return update(key, (k, oldValue) -> value, false, true);
+    }
+
+    @Override
+    @Nullable
+    public V putIfAbsent(@NotNull K key, @NotNull V value) {
+        checkValue(value);
+        return update(key, (k, oldValue) -> oldValue == null ? value : oldValue, false, false);
+    }
+
+    /**
+     * Removes the entry by the given key if exists, returns null otherwise.
+     * @throws  IllegalArgumentException in case of null argument
+     *
+     * @return the value of removed entry if exists, null otherwise
+     */
+    @Override
+    @Nullable
+    public V remove(@NotNull Object key) {
+        return removeIf(key, null);
+    }
+
+    @Override
+    public boolean remove(@NotNull Object key, @Nullable Object value) {
+        if (value == null) {
+            return false;
+        }
+        return value.equals(removeIf(key, value));
+    }
+
+    @Override
+    public boolean replace(@NotNull K key, @NotNull V oldValue, @NotNull V newValue) {
+        checkValue(newValue);
+        V previousValue = update(key, (k, value) -> oldValue.equals(value) ? newValue : value, false, false);
+        return oldValue.equals(previousValue);
+    }
+
+    @Override
+    @Nullable
+    public V replace(@NotNull K key, @NotNull V value) {
+        checkValue(value);
+        return update(key, (k, oldValue) -> oldValue == null ? null : value, false, false);
+    }
+
+    /** Computes the value of an absent key under the segment lock, the function is called at most once */
+    @Override
+    @Nullable
+    public V computeIfAbsent(@NotNull K key, @NotNull Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        return update(key, (k, oldValue) -> oldValue == null ? mappingFunction.apply(k) : oldValue, true, false);
+    }
+
+    @Override
+    @Nullable
+    public V computeIfPresent(@NotNull K key,
+                              @NotNull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return update(key, (k, oldValue) -> oldValue == null ? null : remappingFunction.apply(k, oldValue), true, false);
+    }
+
+    @Override
+    @Nullable
+    public V compute(@NotNull K key, @NotNull BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return update(key, remappingFunction, true, false);
+    }
+
+    @Override
+    @Nullable
+    public V merge(@NotNull K key,
+                   @NotNull V value,
+                   @NotNull BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        checkValue(value);
+        return update(key, (k, oldValue) -> oldValue == null ? value : remappingFunction.apply(oldValue, value), true, false);
+    }
+
+    /** Delete all the values in the hashtable, concurrent updates may survive */
+    @Override
+    public void clear() {
+        int cleared = 0;
+        for (Segment<K, V> segment : segments) {
+            cleared += segment.clear();
+        }
+        deadNodes.addAndGet(cleared);
+        sweepIfNeeded();
+    }
+
+    /** Returns weakly consistent set that represents the set of map entries in the order of insertion */
+    @NotNull
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (cachedEntrySet == null) {
+            cachedEntrySet = new EntrySet();
+        }
+        return cachedEntrySet;
+    }
+
+    private static int hash(@NotNull Object key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null keys are not allowed");
+        }
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static void checkValue(@Nullable Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not allowed");
+        }
+    }
+
+    private static int powerOfTwo(int number) {
+        return number <= 1 ? 1 : Integer.highestOneBit(number - 1) << 1;
+    }
+
+    @NotNull
+    private Segment<K, V> segmentFor(int hash) {
+        // the bucket index uses the low bits of the hash, so the segment index uses
+        // the high bits of its Fibonacci hash which depend on all the bits of the hash
+        return segments[segmentShift == 32 ? 0 : (hash * 0x9E3779B9) >>> segmentShift];
+    }
+
+    // removes the key if it is mapped to the given value or to any value if the given value is null
+    @Nullable
+    private V removeIf(@NotNull Object key, @Nullable Object value) {
+        int hash = hash(key);
+        Node<K, V> node = segmentFor(hash).remove(key, hash, value);
+        if (node == null) {
+            return null;
+        }
+        onNodeDied();
+        return node.value;
+    }
+
+    /**
+     * Replaces the value of the key with the value returned by the function under the segment lock.
+     * The function gets the current value or null and returns the new value,
+     * null to remove the key or the current value to leave the mapping as it is.
+     * A present key moves to the end of the insertion order only if moveToEnd is true
+     *
+     * @return the new value if returnNew is true, the old value otherwise
+     */
+    @Nullable
+    private V update(@NotNull K key,
+                     @NotNull BiFunction<? super K, ? super V, ? extends V> function,
+                     boolean returnNew,
+                     boolean moveToEnd) {
+        int hash = hash(key);
+        Segment<K, V> segment = segmentFor(hash);
+        V oldValue;
+        V newValue;
+        boolean isNodeDead;
+        segment.lock();
+        try {
+            Node<K, V> oldNode = segment.find(key, hash);
+            oldValue = oldNode == null ? null : oldNode.value;
+            newValue = function.apply(key, oldValue);
+            if (newValue == oldValue) {
+                return oldValue;
+            }
+            if (newValue == null) {
+                isNodeDead = segment.remove(key, hash, null) != null;
+            } else if (oldNode != null && !moveToEnd) {
+                oldNode.value = newValue;
+                isNodeDead = false;
+            } else {
+                isNodeDead = oldNode != null;
+                var newNode = new Node<>(key, hash, newValue, null);
+                segment.replace(oldNode, newNode);
+                append(newNode);
+            }
+        } finally {
+            segment.unlock();
+        }
+        if (isNodeDead) {
+            onNodeDied();
+        }
+        return returnNew ? newValue : oldValue;
+    }
+
+    // adds the node to the end of the insertion order, like the Michael-Scott queue does
+    private void append(@NotNull Node<K, V> node) {
+        while (true) {
+            Node<K, V> last = tail.get();
+            Node<K, V> next = last.after;
+            if (next != null) {
+                tail.compareAndSet(last, next);
+            } else if (Node.AFTER.compareAndSet(last, null, node)) {
+                tail.compareAndSet(last, node);
+                return;
+            }
+        }
+    }
+
+    // the number of nodes in the insertion order list including the removed ones that are not unlinked yet
+    int linkedNodesNumber() {
+        int number = 0;
+        for (Node<K, V> node = head.after; node != null; node = node.after) {
+            number++;
+        }
+        return number;
+    }
+
+    int deadNodesNumber() {
+        return deadNodes.get();
+    }
+
+    private void onNodeDied() {
+        deadNodes.incrementAndGet();
+        sweepIfNeeded();
+    }
+
+    // unlinks the removed nodes from the order list if there are more of them than live ones
+    private void sweepIfNeeded() {
+        int dead = deadNodes.get();
+        if (dead < MIN_DEAD_NODES_TO_SWEEP || dead < size() || !isSweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int unlinked = 0;
+            Node<K, V> previous = head;
+            Node<K, V> node = previous.after;
+            while (node != null) {
+                Node<K, V> next = node.after;
+                // the last node is never unlinked so that no append can be lost
+                if (node.isRemoved && next != null) {
+                    Node.AFTER.compareAndSet(previous, node, next);
+                    unlinked++;
+                } else {
+                    previous = node;
+                }
+                node = next;
+            }
+            deadNodes.addAndGet(-unlinked);
+        } finally {
+            isSweeping.set(false);
+        }
+    }
+
+    /**
+     * A mapping of the table. Key and hash never change, the value is changed under the segment lock,
+     * next links the nodes of a bucket and after links the nodes in the order of insertion
+     */
+    private static final class Node<K, V> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, Node> AFTER =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "after");
+        private final K key;
+        private final int hash;
+        private volatile V value;
+        private volatile Node<K, V> next;
+        private volatile Node<K, V> after;
+        private volatile boolean isRemoved;
+
+        private Node(K key, int hash, V value, Node<K, V> next) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /** Part of the table guarded by its own lock, all the modifications are done under the lock */
+    private static final class Segment<K, V> extends ReentrantLock {
+        private volatile AtomicReferenceArray<Node<K, V>> table;
+        // odd while the table is being resized
+        private volatile int resizeStamp;
+        private volatile int count;
+
+        private Segment(int capacity) {
+            table = new AtomicReferenceArray<>(capacity);
+        }
+
+        // reads do not lock unless they miss the key while the table is being resized
+        @Nullable
+        private Node<K, V> find(@NotNull Object key, int hash) {
+            while (true) {
+                int stamp = resizeStamp;
+                if ((stamp & 1) != 0) {
+                    lock();
+                    try {
+                        return findInTable(key, hash);
+                    } finally {
+                        unlock();
+                    }
+                }
+                Node<K, V> node = findInTable(key, hash);
+                if (node != null || resizeStamp == stamp) {
+                    return node;
+                }
+            }
+        }
+
+        @Nullable
+        private Node<K, V> findInTable(@NotNull Object key, int hash) {
+            AtomicReferenceArray<Node<K, V>> currentTable = table;
+            Node<K, V> node = currentTable.get(hash & (currentTable.length() - 1));
+            while (node != null && !(node.hash == hash && key.equals(node.key))) {
+                node = node.next;
+            }
+            return node;
+        }
+
+        // puts the new node in place of the old one or to the head of its bucket, called under the lock
+        private void replace(@Nullable Node<K, V> oldNode, @NotNull Node<K, V> newNode) {
+            if (oldNode == null) {
+                if (count + 1 > table.length() * LOAD_FACTOR) {
+                    resize();
+                }
+                int index = newNode.hash & (table.length() - 1);
+                newNode.next = table.get(index);
+                table.set(index, newNode);
+                count++;
+                return;
+            }
+
+            int index = oldNode.hash & (table.length() - 1);
+            newNode.next = oldNode.next;
+            Node<K, V> first = table.get(index);
+            if (first == oldNode) {
+                table.set(index, newNode);
+            } else {
+                Node<K, V> previous = first;
+                while (previous.next != oldNode) {
+                    previous = previous.next;
+                }
+                previous.next = newNode;
+            }
+            oldNode.isRemoved = true;
+        }
+
+        /**
+         * Removes the node of the key if it has the given value or any value if the given value is null
+         *
+         * @return the removed node or null if nothing was removed
+         */
+        @Nullable
+        private Node<K, V> remove(@NotNull Object key, int hash, @Nullable Object value) {
+            lock();
+            try {
+                int index = hash & (table.length() - 1);
+                Node<K, V> previous = null;
+                Node<K, V> node = table.get(index);
+                while (node != null && !(node.hash == hash && key.equals(node.key))) {
+                    previous = node;
+                    node = node.next;
+                }
+                if (node == null || (value != null && !value.equals(node.value))) {
+                    return null;
+                }
+                if (previous == null) {
+                    table.set(index, node.next);
+                } else {
+                    previous.next = node.next;
+                }
+                node.isRemoved = true;
+                count--;
+                return node;
+            } finally {
+                unlock();
+            }
+        }
+
+        // returns the number of removed nodes
+        private int clear() {
+            lock();
+            try {
+                int cleared = 0;
+                for (int i = 0; i < table.length(); i++) {
+                    for (Node<K, V> node = table.get(i); node != null; node = node.next) {
+                        node.isRemoved = true;
+                        cleared++;
+                    }
+                    table.set(i, null);
+                }
+                count = 0;
+                return cleared;
+            } finally {
+                unlock();
+            }
+        }
+
+        // moves the nodes to a twice larger table, readers that miss a key meanwhile retry
+        private void resize() {
+            resizeStamp++;
+            try {
+                AtomicReferenceArray<Node<K, V>> oldTable = table;
+                var newTable = new AtomicReferenceArray<Node<K, V>>(oldTable.length() * 2);
+                int mask = newTable.length() - 1;
+                for (int i = 0; i < oldTable.length(); i++) {
+                    Node<K, V> node = oldTable.get(i);
+                    while (node != null) {
+                        Node<K, V> next = node.next;
+                        int index = node.hash & mask;
+                        node.next = newTable.get(index);
+                        newTable.set(index, node);
+                        node = next;
+                    }
+                }
+                table = newTable;
+            } finally {
+                resizeStamp++;
+            }
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @NotNull
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return ConcurrentLinkedHashTable.this.size();
+        }
+
+        private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+            private Node<K, V> next = skipRemoved(head.after);
+            private Node<K, V> last = null;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                last = next;
+                next = skipRemoved(next.after);
+                return new MapEntry(last.key, last.value);
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                ConcurrentLinkedHashTable.this.remove(last.key, last.value);
+                last = null;
+            }
+
+            @Nullable
+            private Node<K, V> skipRemoved(@Nullable Node<K, V> node) {
+                while (node != null && node.isRemoved) {
+                    node = node.after;
+                }
+                return node;
+            }
+        }
+    }
+
+    // an entry returned by the iterator, setValue writes the new value to the table in place
+    private class MapEntry extends SimpleEntry<K, V> {
+        private MapEntry(@NotNull K key, @NotNull V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(@NotNull V value) {
+            checkValue(value);
+            V previousValue = super.setValue(value);
+            update(getKey(), (k, oldValue) -> value, false, false);
+            return previousValue;
+        }
+    }
+}
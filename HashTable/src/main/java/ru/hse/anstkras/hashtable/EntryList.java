@@ -19,7 +19,20 @@ interface EntryList<K, V> extends Iterable<LinkedHashTable.Entry<K, V>> {
      * @return removed element if it was contained in the list, null otherwise
      */
     @Nullable
-    LinkedHashTable.Entry<K, V> remove(@NotNull LinkedHashTable.Entry<?, V> value);
+    default LinkedHashTable.Entry<K, V> remove(@NotNull LinkedHashTable.Entry<?, V> value) {
+        return remove(value.getKey(), value.getHash());
+    }
+
+    /**
+     * Removes the first element with the given key if it is contained in the list,
+     * otherwise returns null
+     *
+     * @param key  key of the element to remove
+     * @param hash hash code of the key
+     * @return removed element if it was contained in the list, null otherwise
+     */
+    @Nullable
+    LinkedHashTable.Entry<K, V> remove(@NotNull Object key, int hash);
 
     /**
      * Add the element to the end of the list
@@ -35,9 +48,23 @@ interface EntryList<K, V> extends Iterable<LinkedHashTable.Entry<K, V>> {
      * @return the first occurrence of the element that is equal to the given element
      */
     @Nullable
-    LinkedHashTable.Entry<K, V> find(@NotNull LinkedHashTable.Entry<?, V> value);
+    default LinkedHashTable.Entry<K, V> find(@NotNull LinkedHashTable.Entry<?, V> value) {
+        return find(value.getKey(), value.getHash());
+    }
+
+    /**
+     * Finds the first element with the given key, comparing the hash codes before the keys
+     *
+     * @param key  key of the element to find
+     * @param hash hash code of the key
+     * @return the first element with the given key or null if there is no such element
+     */
+    @Nullable
+    LinkedHashTable.Entry<K, V> find(@NotNull Object key, int hash);
 
-    boolean contains(@NotNull LinkedHashTable.Entry<K, V> value);
+    default boolean contains(@NotNull LinkedHashTable.Entry<K, V> value) {
+        return find(value) != null;
+    }
 
     void clear();
 
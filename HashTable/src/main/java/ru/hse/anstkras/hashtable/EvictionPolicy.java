@@ -0,0 +1,15 @@
+package ru.hse.anstkras.hashtable;
+
+/** Specifies which entries a bounded cache keeps when it is full */
+public enum EvictionPolicy {
+    /** The least recently used entry is evicted */
+    LRU,
+
+    /**
+     * New entries are kept in a small LRU window, an entry evicted from the window
+     * is admitted to the main LRU part only if it was used more frequently than the entry it would evict.
+     * Frequencies are estimated by a count-min sketch that is periodically halved, so one-off scans
+     * do not flush frequently used entries out of the cache
+     */
+    W_TINY_LFU
+}
@@ -0,0 +1,299 @@
+package ru.hse.anstkras.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Hashtable which entries expire after the given duration since they were written or accessed.
+ * The entries are kept in a LinkedHashTable in the order of insertion or access,
+ * which is also the order of their expiration, so expired entries are always at the head of the chain.
+ * Every put removes a few expired entries from the head, expired entries not removed yet are never returned.
+ * An optional background sweeper periodically removes all the expired entries,
+ * it does not keep the hashtable from being collected and stops after the hashtable is collected or closed.
+ *
+ * All the methods are synchronized, iteration over the views requires synchronizing on the hashtable.
+ * Null keys are not allowed
+ */
+public class ExpiringHashTable<K, V> extends AbstractMap<K, V> implements AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 10;
+    private static final double LOAD_FACTOR = 0.75;
+    private static final int EXPIRED_ENTRIES_PER_PUT = 16;
+    private final long durationNanos;
+    private final @NotNull ExpiryPolicy policy;
+    private final @NotNull LinkedHashTable<K, Node<V>> table;
+    private final @NotNull LongSupplier ticker;
+    private final @Nullable ScheduledExecutorService sweeper;
+    private Set<Map.Entry<K, V>> cachedEntrySet = null;
+
+    /**
+     * Creates a hashtable without background sweeper
+     * @throws IllegalArgumentException in case of non positive duration
+     */
+    public ExpiringHashTable(long duration, @NotNull TimeUnit unit, @NotNull ExpiryPolicy policy) {
+        this(duration, unit, policy, 0, unit, System::nanoTime);
+    }
+
+    /**
+     * Creates a hashtable with a daemon thread that removes expired entries with the given period.
+     * The thread stops when the hashtable is closed
+     * @throws IllegalArgumentException in case of non positive duration or period
+     */
+    public ExpiringHashTable(long duration,
+                             @NotNull TimeUnit unit,
+                             @NotNull ExpiryPolicy policy,
+                             long sweepPeriod,
+                             @NotNull TimeUnit sweepUnit) {
+        this(duration, unit, policy, checkPeriod(sweepPeriod), sweepUnit, System::nanoTime);
+    }
+
+    // the sweeper is not started if the period is 0
+    ExpiringHashTable(long duration,
+                      @NotNull TimeUnit unit,
+                      @NotNull ExpiryPolicy policy,
+                      long sweepPeriod,
+                      @NotNull TimeUnit sweepUnit,
+                      @NotNull LongSupplier ticker) {
+        if (duration <= 0) {
+            throw new IllegalArgumentException("Duration should be positive");
+        }
+        durationNanos = unit.toNanos(duration);
+        this.policy = policy;
+        this.ticker = ticker;
+        table = new LinkedHashTable<>(DEFAULT_CAPACITY, LOAD_FACTOR, policy == ExpiryPolicy.AFTER_ACCESS);
+        if (sweepPeriod == 0) {
+            sweeper = null;
+        } else {
+            sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "ExpiringHashTable sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sweeper.scheduleWithFixedDelay(new Sweep(this, sweeper), sweepPeriod, sweepPeriod, sweepUnit);
+        }
+    }
+
+    /** Returns the number of entries that have not expired */
+    @Override
+    public synchronized int size() {
+        removeExpired();
+        return table.size();
+    }
+
+    /**
+     * Checks if the given key is presented in the hash table and has not expired.
+     * The expiration time of the entry does not change
+     * @throws  IllegalArgumentException in case of null argument
+     */
+    @Override
+    public synchronized boolean containsKey(@NotNull Object key) {
+        LinkedHashTable.Entry<K, Node<V>> entry = table.findEntry(checkKey(key));
+        return entry != null && !isExpired(entry.getValue(), ticker.getAsLong());
+    }
+
+    /**
+     * Looks for a value by the given key.
+     * If the key is not presented in the hash table or has expired returns null
+     * In AFTER_ACCESS mode the expiration time of the entry is postponed
+     * @throws  IllegalArgumentException in case of null argument
+     */
+    @Override
+    @Nullable
+    public synchronized V get(@NotNull Object key) {
+        Node<V> node = table.get(checkKey(key));
+        if (node == null) {
+            return null;
+        }
+        long now = ticker.getAsLong();
+        if (isExpired(node, now)) {
+            table.remove(key);
+            return null;
+        }
+        if (policy == ExpiryPolicy.AFTER_ACCESS) {
+            node.expirationTime = now + durationNanos;
+        }
+        return node.value;
+    }
+
+    /**
+     * Associates the given key with the given value that expires after the duration.
+     * Returns the old value if it has not expired, otherwise returns null
+     * Null value is allowed
+     * @throws  IllegalArgumentException in case of null key
+     */
+    @Override
+    @Nullable
+    public synchronized V put(@NotNull K key, @Nullable V value) {
+        long now = ticker.getAsLong();
+        removeExpired(now, EXPIRED_ENTRIES_PER_PUT);
+        Node<V> oldNode = table.put(checkKey(key), new Node<>(value, now + durationNanos));
+        return oldNode == null || isExpired(oldNode, now) ? null : oldNode.value;
+    }
+
+    /**
+     * Removes the entry by the given key if exists.
+     * Returns the value of removed entry if it has not expired, otherwise returns null
+     * @throws  IllegalArgumentException in case of null argument
+     */
+    @Override
+    @Nullable
+    public synchronized V remove(@NotNull Object key) {
+        Node<V> node = table.remove(checkKey(key));
+        return node == null || isExpired(node, ticker.getAsLong()) ? null : node.value;
+    }
+
+    @Override
+    public synchronized void clear() {
+        table.clear();
+    }
+
+    /**
+     * Returns set that represents the set of entries that have not expired,
+     * in the order of expiration
+     */
+    @NotNull
+    @Override
+    public synchronized Set<Map.Entry<K, V>> entrySet() {
+        if (cachedEntrySet == null) {
+            cachedEntrySet = new EntrySet();
+        }
+        return cachedEntrySet;
+    }
+
+    /** Removes all the expired entries */
+    public synchronized void removeExpired() {
+        removeExpired(ticker.getAsLong(), Integer.MAX_VALUE);
+    }
+
+    // the number of entries including the expired ones that are not removed yet
+    synchronized int storedEntriesNumber() {
+        return table.size();
+    }
+
+    /** Stops the background sweeper if there is one */
+    @Override
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    private static long checkPeriod(long sweepPeriod) {
+        if (sweepPeriod <= 0) {
+            throw new IllegalArgumentException("Sweep period should be positive");
+        }
+        return sweepPeriod;
+    }
+
+    @NotNull
+    private static <T> T checkKey(@Nullable T key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null keys are not allowed");
+        }
+        return key;
+    }
+
+    private static boolean isExpired(@NotNull Node<?> node, long now) {
+        return now - node.expirationTime >= 0;
+    }
+
+    // removes at most the given number of expired entries from the head of the chain
+    private void removeExpired(long now, int limit) {
+        for (int i = 0; i < limit; i++) {
+            LinkedHashTable.Entry<K, Node<V>> eldest = table.eldestEntry();
+            if (eldest == null || !isExpired(eldest.getValue(), now)) {
+                return;
+            }
+            table.removeEntry(eldest);
+        }
+    }
+
+    // the task of the sweeper that refers to the hashtable weakly and stops the sweeper once it is collected
+    private static class Sweep implements Runnable {
+        private final @NotNull WeakReference<ExpiringHashTable<?, ?>> hashTable;
+        private final @NotNull ScheduledExecutorService sweeper;
+
+        private Sweep(@NotNull ExpiringHashTable<?, ?> hashTable, @NotNull ScheduledExecutorService sweeper) {
+            this.hashTable = new WeakReference<>(hashTable);
+            this.sweeper = sweeper;
+        }
+
+        @Override
+        public void run() {
+            ExpiringHashTable<?, ?> table = hashTable.get();
+            if (table == null) {
+                sweeper.shutdown();
+            } else {
+                table.removeExpired();
+            }
+        }
+    }
+
+    private static class Node<V> {
+        private V value;
+        private long expirationTime;
+
+        private Node(@Nullable V value, long expirationTime) {
+            this.value = value;
+            this.expirationTime = expirationTime;
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @NotNull
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            removeExpired();
+            Iterator<Map.Entry<K, Node<V>>> iterator = table.entrySet().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Map.Entry<K, V> next() {
+                    return new NodeEntry(iterator.next());
+                }
+
+                @Override
+                public void remove() {
+                    synchronized (ExpiringHashTable.this) {
+                        iterator.remove();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return ExpiringHashTable.this.size();
+        }
+    }
+
+    // changes of the value write through to the node
+    private class NodeEntry extends AbstractMap.SimpleEntry<K, V> {
+        private final @NotNull Node<V> node;
+
+        private NodeEntry(@NotNull Map.Entry<K, Node<V>> entry) {
+            super(entry.getKey(), entry.getValue().value);
+            node = entry.getValue();
+        }
+
+        @Override
+        @Nullable
+        public V setValue(@Nullable V value) {
+            synchronized (ExpiringHashTable.this) {
+                node.value = value;
+            }
+            return super.setValue(value);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package ru.hse.anstkras.hashtable;
+
+/** Specifies when an entry of ExpiringHashTable expires */
+public enum ExpiryPolicy {
+    /** The entry expires when the duration passes since it was put */
+    AFTER_WRITE,
+
+    /** The entry expires when the duration passes since it was put or got */
+    AFTER_ACCESS
+}
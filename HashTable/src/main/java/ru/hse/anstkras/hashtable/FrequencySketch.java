@@ -0,0 +1,64 @@
+package ru.hse.anstkras.hashtable;
+
+/**
+ * Count-min sketch of 4-bit counters that estimates how often the keys were used.
+ * When the number of increments reaches the sample size all the counters are halved,
+ * so the estimations follow the recent history.
+ */
+class FrequencySketch {
+    private static final int MAX_COUNTER = 15;
+    private static final int MAX_COUNTERS_NUMBER = 1 << 26;
+    private static final int[] SEEDS = {0x97CB3127, 0xB492B66F, 0x9AE16A3B, 0xCBF29CE5};
+    // 16 counters in every long
+    private final long[] table;
+    private final int countersMask;
+    private final int sampleSize;
+    private int incrementsNumber;
+
+    FrequencySketch(long maximumSize) {
+        long countersNumber = Math.min(MAX_COUNTERS_NUMBER, Math.max(64, maximumSize * 16));
+        int powerOfTwo = Integer.highestOneBit((int) countersNumber - 1) << 1;
+        table = new long[powerOfTwo / 16];
+        countersMask = powerOfTwo - 1;
+        sampleSize = (int) Math.min(Integer.MAX_VALUE / 2, 10 * Math.max(1, maximumSize));
+    }
+
+    /** Returns the estimated number of uses of the key with the given hash, not more than 15 */
+    int frequency(int hash) {
+        int frequency = MAX_COUNTER;
+        for (int seed : SEEDS) {
+            int counter = counterIndex(hash, seed);
+            frequency = Math.min(frequency, (int) (table[counter >>> 4] >>> ((counter & 15) << 2)) & MAX_COUNTER);
+        }
+        return frequency;
+    }
+
+    /** Records a use of the key with the given hash */
+    void increment(int hash) {
+        boolean isIncremented = false;
+        for (int seed : SEEDS) {
+            int counter = counterIndex(hash, seed);
+            int shift = (counter & 15) << 2;
+            if (((table[counter >>> 4] >>> shift) & MAX_COUNTER) != MAX_COUNTER) {
+                table[counter >>> 4] += 1L << shift;
+                isIncremented = true;
+            }
+        }
+        if (isIncremented && ++incrementsNumber == sampleSize) {
+            reset();
+        }
+    }
+
+    private int counterIndex(int hash, int seed) {
+        int index = hash * seed;
+        return (index ^ (index >>> 16)) & countersMask;
+    }
+
+    // halves all the counters
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & 0x7777_7777_7777_7777L;
+        }
+        incrementsNumber /= 2;
+    }
+}
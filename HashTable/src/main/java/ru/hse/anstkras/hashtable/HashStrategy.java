@@ -0,0 +1,11 @@
+package ru.hse.anstkras.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Interface that allows to use different hashing algorithms for the keys of LinkedHashTable.
+ * Equal keys should have equal hashes
+ */
+public interface HashStrategy<K> {
+    int hash(@NotNull K key);
+}
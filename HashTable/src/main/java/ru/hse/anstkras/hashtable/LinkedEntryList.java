@@ -23,17 +23,18 @@ class LinkedEntryList<K, V> implements EntryList<K, V> {
     }
 
     /**
-     * Removes the first occurrence of the given element if it is contained in the list,
+     * Removes the first element with the given key if it is contained in the list,
      * otherwise returns null
      *
-     * @param value element to remove
+     * @param key  key of the element to remove
+     * @param hash hash code of the key
      * @return removed element if it was contained in the list, null otherwise
      */
     @Override
     @Nullable
-    public LinkedHashTable.Entry<K, V> remove(@NotNull LinkedHashTable.Entry<?, V> value) {
+    public LinkedHashTable.Entry<K, V> remove(@NotNull Object key, int hash) {
         for (ListNode<K, V> node = head; node != null; node = node.next) {
-            if (node.value.equals(value)) {
+            if (node.value.hasKey(key, hash)) {
                 ListNode<K, V> next = node.next;
                 ListNode<K, V> prev = node.prev;
 
@@ -82,27 +83,23 @@ class LinkedEntryList<K, V> implements EntryList<K, V> {
     }
 
     /**
-     * Finds the first occurrence of the element that is equal to the given element
+     * Finds the first element with the given key, comparing the hash codes before the keys
      *
-     * @param value element to find
-     * @return the first occurrence of the element that is equal to the given element
+     * @param key  key of the element to find
+     * @param hash hash code of the key
+     * @return the first element with the given key or null if there is no such element
      */
     @Override
     @Nullable
-    public LinkedHashTable.Entry<K, V> find(@NotNull LinkedHashTable.Entry<?, V> value) {
+    public LinkedHashTable.Entry<K, V> find(@NotNull Object key, int hash) {
         for (ListNode<K, V> node = head; node != null; node = node.next) {
-            if (node.value.equals(value)) {
+            if (node.value.hasKey(key, hash)) {
                 return node.value;
             }
         }
         return null;
     }
 
-    @Override
-    public boolean contains(@NotNull LinkedHashTable.Entry<K, V> value) {
-        return find(value) != null;
-    }
-
     @Override
     public void clear() {
         ListNode node = head;
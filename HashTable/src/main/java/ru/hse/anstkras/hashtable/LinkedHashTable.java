@@ -4,17 +4,49 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Implementation of hashtable based on separate chaining technique
  * Null keys are not allowed
+ *
+ * Hash codes of the keys are computed by the HashStrategy, by hashCode by default,
+ * mixed to spread their bits and cached in the entries.
+ * The number of buckets is a power of two, so the bucket of an entry is given by the lower bits of the mixed hash.
+ * A bucket of Comparable keys of the same class turns into a balanced tree when it becomes long,
+ * so colliding keys cost logarithmic time instead of linear.
+ *
+ * The table is resized incrementally: when it grows, a twice larger table of buckets is allocated
+ * and every following put or remove moves a few buckets of the old table to the new one,
+ * so no single operation rehashes all the entries.
+ * Buckets are created on the first entry added to them.
+ * The spliterator of the entry set splits the table by ranges of buckets for parallel streams,
+ * so it does not report ORDERED and streams of the entry set do not keep the order of insertion,
+ * the iterators of the hashtable and its views do.
+ *
+ * In access order mode a successful get also moves the entry to the end of the iteration order,
+ * so the entries are iterated from the least recently used to the most recently used one.
+ * Together with removeEldestEntry it turns the hashtable into a bounded LRU cache.
  */
 public class LinkedHashTable<K, V> extends AbstractMap<K, V> {
     private static final double DEFAULT_LOAD_FACTOR = 0.75;
-    private static final int DEFAULT_CAPACITY = 10;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final int MIGRATED_BUCKETS_PER_OPERATION = 4;
+    // the length of a bucket that turns it into a tree and the length that turns it back into a list
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int UNTREEIFY_THRESHOLD = 6;
     private final double loadFactor;
+    private final boolean accessOrder;
+    private final @NotNull HashStrategy<? super K> hashStrategy;
     private EntryList<K, V>[] lists;
     private int capacity;
+    // the table being moved to lists during the resize, null if there is no resize in progress
+    private EntryList<K, V>[] oldLists = null;
+    private int oldCapacity;
+    // the buckets of the old table with smaller indices are already moved
+    private int migratedBuckets;
     private int size;
     private Entry<K, V> head = null;
     private Entry<K, V> tail = null;
@@ -28,14 +60,36 @@ public class LinkedHashTable<K, V> extends AbstractMap<K, V> {
         this(capacity, DEFAULT_LOAD_FACTOR);
     }
 
-    @SuppressWarnings("unchecked")
     public LinkedHashTable(int capacity, double loadFactor) {
-        lists = (LinkedEntryList<K, V>[])new LinkedEntryList[capacity];
-        for (int i = 0; i < capacity; i++) {
-            lists[i] = new LinkedEntryList<>();
-        }
-        this.capacity = capacity;
+        this(capacity, loadFactor, false);
+    }
+
+    /**
+     * Creates a hashtable that iterates the entries in the order of access if accessOrder is true
+     * and in the order of insertion otherwise
+     */
+    public LinkedHashTable(int capacity, double loadFactor, boolean accessOrder) {
+        this(capacity, loadFactor, accessOrder, Object::hashCode);
+    }
+
+    /** Creates a hashtable that computes hash codes of the keys with the given strategy */
+    public LinkedHashTable(@NotNull HashStrategy<? super K> hashStrategy) {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, false, hashStrategy);
+    }
+
+    /**
+     * Creates a hashtable with at least the given number of buckets
+     * that computes hash codes of the keys with the given strategy
+     */
+    public LinkedHashTable(int capacity,
+                           double loadFactor,
+                           boolean accessOrder,
+                           @NotNull HashStrategy<? super K> hashStrategy) {
+        this.capacity = bucketsNumber(capacity);
+        lists = newLists(this.capacity);
         this.loadFactor = loadFactor;
+        this.accessOrder = accessOrder;
+        this.hashStrategy = hashStrategy;
     }
 
     public int size() {
@@ -51,22 +105,33 @@ public class LinkedHashTable<K, V> extends AbstractMap<K, V> {
      * @throws  IllegalArgumentException in case of null argument
      */
     public boolean contains(@NotNull K key) {
-        int hashKey = hashMod(key);
-        return lists[hashKey].contains(new Entry<>(key, null));
+        return findEntry(key) != null;
+    }
+
+    /**
+     * Checks if the given key is presented in the hash table.
+     * @throws  IllegalArgumentException in case of null argument
+     */
+    @Override
+    public boolean containsKey(@NotNull Object key) {
+        return findEntry(key) != null;
     }
 
     /**
      * Looks for a value by the given key.
      * If the key is not presented in the hash table returns null
+     * In access order mode the found entry becomes the most recently used one
      * @throws  IllegalArgumentException in case of null argument
      */
     @Nullable
     public V get(@NotNull Object key) {
-        int hashKey = hashMod(key);
-        Entry<K, V> entry = lists[hashKey].find(new Entry<>(key, null));
+        Entry<K, V> entry = findEntry(key);
         if (entry == null) {
             return null;
         }
+        if (accessOrder) {
+            moveToEnd(entry);
+        }
         return entry.value;
     }
 
@@ -75,24 +140,32 @@ public class LinkedHashTable<K, V> extends AbstractMap<K, V> {
      * If there was an old value associated with the given key,
      * than returns the old value, otherwise returns null
      * Null value is allowed
+     * After a new entry is added the eldest entry is removed if removeEldestEntry returns true
      * @throws  IllegalArgumentException in case of null key
      *
      * @return the old value if exists, null otherwise
      */
     @Nullable
     public V put(@NotNull K key, @Nullable V value) {
-        var newEntry = new Entry<>(key, value);
-        addToList(newEntry);
-        int hashKey = hashMod(key);
-        Entry<K, V> entry = lists[hashKey].remove(new Entry<>(key, null));
-        lists[hashKey].add(newEntry);
+        migrateLists();
+        int hash = hash(key);
+        EntryList<K, V> list = findList(hash);
+        Entry<K, V> entry = list == null ? null : list.find(key, hash);
         if (entry == null) {
+            var newEntry = new Entry<>(key, hash, value);
+            EntryList<K, V>[] table = tableOf(hash);
+            addToBucket(table, indexFor(hash, table.length), newEntry);
+            addToList(newEntry);
             size++;
             checkLoadFactor();
+            if (removeEldestEntry(head)) {
+                removeEntry(head);
+            }
             return null;
         } else {
-            removeFromList(entry);
-            return entry.value;
+            // the entry moves to the end of the insertion order
+            moveToEnd(entry);
+            return entry.setValue(value);
         }
     }
 
@@ -104,8 +177,8 @@ public class LinkedHashTable<K, V> extends AbstractMap<K, V> {
      */
     @Nullable
     public V remove(@NotNull Object key) {
-        int hashKey = hashMod(key);
-        Entry<K, V> removeEntry = lists[hashKey].remove(new Entry<>(key, null));
+        migrateLists();
+        Entry<K, V> removeEntry = removeFromBucket(key, hash(key));
         if (removeEntry == null) {
             return null;
         } else {
@@ -115,9 +188,78 @@ public class LinkedHashTable<K, V> extends AbstractMap<K, V> {
         }
     }
 
+    /**
+     * Is called by put after a new entry is added with the first entry of the iteration order,
+     * the least recently used one in access order mode.
+     * If it returns true the eldest entry is removed, so overriding it bounds the hashtable.
+     * The default implementation always returns false
+     */
+    protected boolean removeEldestEntry(@NotNull Map.Entry<K, V> eldest) {
+        return false;
+    }
+
+    // the first entry of the iteration order, null if the hashtable is empty
+    @Nullable
+    Entry<K, V> eldestEntry() {
+        return head;
+    }
+
+    // removes the entry of the hashtable in constant time
+    void removeEntry(@NotNull Entry<K, V> entry) {
+        migrateLists();
+        if (removeFromBucket(entry.key, entry.hash) != null) {
+            size--;
+            removeFromList(entry);
+        }
+    }
+
     /** Delete all the values in the hashtable and shrinks its capacity */
     public void clear() {
-        assignLists(new LinkedHashTable<>());
+        lists = newLists(DEFAULT_CAPACITY);
+        capacity = DEFAULT_CAPACITY;
+        oldLists = null;
+        size = 0;
+        head = null;
+        tail = null;
+    }
+
+    /**
+     * Makes the table large enough to hold the given number of entries without growing.
+     * The entries are moved to the new table incrementally like during the usual growth
+     */
+    public void ensureCapacity(int expectedSize) {
+        int requiredCapacity = bucketsNumber((int) Math.min(MAXIMUM_CAPACITY, (long) Math.ceil(expectedSize / loadFactor) + 1));
+        if (requiredCapacity > capacity) {
+            resize(requiredCapacity);
+        }
+    }
+
+    /** Puts all the entries of the given map, growing the table at most once */
+    @Override
+    public void putAll(@NotNull Map<? extends K, ? extends V> map) {
+        ensureCapacity(size + map.size());
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes all the entries satisfying the predicate in one pass over the chain of entries
+     *
+     * @return true if any entry was removed
+     */
+    public boolean removeIf(@NotNull Predicate<? super Map.Entry<K, V>> filter) {
+        boolean isRemoved = false;
+        Entry<K, V> entry = head;
+        while (entry != null) {
+            Entry<K, V> next = entry.next;
+            if (filter.test(entry)) {
+                removeEntry(entry);
+                isRemoved = true;
+            }
+            entry = next;
+        }
+        return isRemoved;
     }
 
     /** Returns set that represents the set of map entries */
@@ -130,47 +272,173 @@ public class LinkedHashTable<K, V> extends AbstractMap<K, V> {
         return cachedEntrySet;
     }
 
-    private EntryList<K, V> entries() {
-        var entries = new LinkedEntryList<K, V>();
-        for (EntryList<K, V> list : lists) {
-            entries.concat(list);
+    @SuppressWarnings("unchecked")
+    private static <K, V> EntryList<K, V>[] newLists(int capacity) {
+        return (EntryList<K, V>[]) new EntryList[capacity];
+    }
+
+    /**
+     * Returns the statistics of the lengths of the bucket chains,
+     * that shows how well the hash strategy spreads the keys
+     */
+    @NotNull
+    public ChainLengthStatistics getChainLengthStatistics() {
+        finishMigration();
+        int[] lengths = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            lengths[i] = lists[i] == null ? 0 : lists[i].size();
         }
-        return entries;
+        return new ChainLengthStatistics(lengths);
     }
 
-    private void checkLoadFactor() {
-        if ((double) size / capacity > loadFactor) {
-            rebuild();
+    // the power of two number of buckets not less than the given capacity
+    private static int bucketsNumber(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity should not be negative");
         }
+        if (capacity >= MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return Math.max(2, Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1);
+    }
+
+    // mixes the bits of the hash like the finalizer of MurmurHash3, so the lower bits depend on all of them
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int indexFor(int hash, int capacity) {
+        return hash & (capacity - 1);
     }
 
-    private int hashMod(@NotNull Object key) {
-        int result = key.hashCode() % capacity;
-        if (result < 0) {
-            result += capacity;
+    @SuppressWarnings("unchecked")
+    private int hash(@NotNull Object key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null keys are not allowed");
         }
-        return result;
+        return mix(hashStrategy.hash((K) key));
     }
 
+    // looks for the entry without allocating and without changing the access order
+    @Nullable
+    Entry<K, V> findEntry(@NotNull Object key) {
+        int hash = hash(key);
+        EntryList<K, V> list = findList(hash);
+        return list == null ? null : list.find(key, hash);
+    }
+
+    // returns the list the key with the given hash belongs to, null if the list has not been created yet
+    @Nullable
+    private EntryList<K, V> findList(int hash) {
+        EntryList<K, V>[] table = tableOf(hash);
+        return table[indexFor(hash, table.length)];
+    }
+
+    // returns the old table if the bucket of the hash has not been moved yet, the new table otherwise
+    @NotNull
+    private EntryList<K, V>[] tableOf(int hash) {
+        if (oldLists != null && indexFor(hash, oldCapacity) >= migratedBuckets) {
+            return oldLists;
+        }
+        return lists;
+    }
+
+    // adds the entry to the bucket creating it if needed and turns the bucket into a tree when it becomes long
+    private static <K, V> void addToBucket(@NotNull EntryList<K, V>[] table, int index, @NotNull Entry<K, V> entry) {
+        EntryList<K, V> list = table[index];
+        if (list == null) {
+            list = new LinkedEntryList<>();
+            table[index] = list;
+        } else if (list instanceof TreeEntryList && !((TreeEntryList<K, V>) list).accepts(entry.key)) {
+            list = untreeify(list);
+            table[index] = list;
+        }
+        list.add(entry);
+        if (list instanceof LinkedEntryList && list.size() >= TREEIFY_THRESHOLD && TreeEntryList.isTreeifiable(list)) {
+            table[index] = new TreeEntryList<>(list);
+        }
+    }
+
+    // removes the entry from its bucket and turns the bucket back into a list when it becomes short
+    @Nullable
+    private Entry<K, V> removeFromBucket(@NotNull Object key, int hash) {
+        EntryList<K, V>[] table = tableOf(hash);
+        int index = indexFor(hash, table.length);
+        EntryList<K, V> list = table[index];
+        if (list == null) {
+            return null;
+        }
+        Entry<K, V> entry = list.remove(key, hash);
+        if (entry != null && list instanceof TreeEntryList && list.size() <= UNTREEIFY_THRESHOLD) {
+            table[index] = untreeify(list);
+        }
+        return entry;
+    }
+
+    @NotNull
+    private static <K, V> EntryList<K, V> untreeify(@NotNull EntryList<K, V> tree) {
+        var list = new LinkedEntryList<K, V>();
+        list.concat(tree);
+        return list;
+    }
+
+    private void checkLoadFactor() {
+        if ((double) size / capacity > loadFactor && capacity < MAXIMUM_CAPACITY) {
+            rebuild();
+        }
+    }
+
+    // starts moving the entries to a twice larger table
     private void rebuild() {
-        var newHashTable = new LinkedHashTable<K, V>(capacity * 2, loadFactor);
-        EntryList<K, V> entries = entries();
-        for (Entry<K, V> entry : entries) {
-            newHashTable.put(entry.key, entry.value);
+        resize(capacity * 2);
+    }
+
+    // starts moving the entries to a table of the given capacity
+    private void resize(int newCapacity) {
+        finishMigration();
+        oldLists = lists;
+        oldCapacity = capacity;
+        migratedBuckets = 0;
+        capacity = newCapacity;
+        lists = newLists(capacity);
+    }
+
+    private void finishMigration() {
+        while (oldLists != null) {
+            migrateLists();
         }
-        assignLists(newHashTable);
     }
 
-    private void assignLists(LinkedHashTable<K, V> hashTable) {
-        deleteAll();
-        lists = hashTable.lists;
-        size = hashTable.size;
-        capacity = hashTable.capacity;
+    // moves the next few buckets of the old table to the new one, keeping the entries themselves
+    private void migrateLists() {
+        if (oldLists == null) {
+            return;
+        }
+        int end = Math.min(migratedBuckets + MIGRATED_BUCKETS_PER_OPERATION, oldCapacity);
+        for (; migratedBuckets < end; migratedBuckets++) {
+            EntryList<K, V> oldList = oldLists[migratedBuckets];
+            if (oldList == null) {
+                continue;
+            }
+            for (Entry<K, V> entry : oldList) {
+                addToBucket(lists, indexFor(entry.hash, capacity), entry);
+            }
+            oldLists[migratedBuckets] = null;
+        }
+        if (migratedBuckets == oldCapacity) {
+            oldLists = null;
+        }
     }
 
-    private void deleteAll() {
-        lists = null;
-        size = 0;
+    private void moveToEnd(@NotNull Entry<K, V> entry) {
+        if (entry != tail) {
+            removeFromList(entry);
+            addToList(entry);
+        }
     }
 
     private void addToList(@NotNull Entry<K, V> entry) {
@@ -208,15 +476,31 @@ public class LinkedHashTable<K, V> extends AbstractMap<K, V> {
 
     static class Entry<K, V> implements Map.Entry<K, V> {
         private final K key;
+        // the cached hash code of the key
+        private final int hash;
         private V value;
         private Entry<K, V> prev;
         private Entry<K, V> next;
 
         Entry(@NotNull K key, @Nullable V value) {
+            this(key, key.hashCode(), value);
+        }
+
+        Entry(@NotNull K key, int hash, @Nullable V value) {
             this.key = key;
+            this.hash = hash;
             this.value = value;
         }
 
+        int getHash() {
+            return hash;
+        }
+
+        // compares the cached hash before calling equals
+        boolean hasKey(@NotNull Object key, int hash) {
+            return this.hash == hash && this.key.equals(key);
+        }
+
         @Override
         @NotNull
         public K getKey() {
@@ -243,12 +527,12 @@ public class LinkedHashTable<K, V> extends AbstractMap<K, V> {
                 return false;
             }
             var otherEntry = (Entry) obj;
-            return otherEntry.key.equals(key);
+            return otherEntry.hash == hash && otherEntry.key.equals(key);
         }
 
         @Override
         public int hashCode() {
-            return key.hashCode();
+            return hash;
         }
     }
 
@@ -265,8 +549,26 @@ public class LinkedHashTable<K, V> extends AbstractMap<K, V> {
             return LinkedHashTable.this.size();
         }
 
+        @Override
+        public boolean removeIf(@NotNull Predicate<? super Map.Entry<K, V>> filter) {
+            return LinkedHashTable.this.removeIf(filter);
+        }
+
+        /**
+         * Returns a spliterator that traverses the chain of entries in the order of iteration
+         * until it is split, the split parts traverse ranges of buckets.
+         * The spliterator is not ORDERED, streams may encounter the entries in any order
+         */
+        @NotNull
+        @Override
+        public Spliterator<Map.Entry<K, V>> spliterator() {
+            finishMigration();
+            return new EntrySpliterator(lists, 0, capacity, size, true);
+        }
+
         private class EntryIterator implements Iterator<Map.Entry<K, V>> {
             private Entry<K, V> next;
+            private Entry<K, V> last = null;
 
             private EntryIterator(@Nullable Entry<K, V> startEntry) {
                 next = startEntry;
@@ -283,9 +585,93 @@ public class LinkedHashTable<K, V> extends AbstractMap<K, V> {
                     throw new NoSuchElementException();
                 }
 
-                Entry<K, V> entry = next;
+                last = next;
                 next = next.next;
-                return entry;
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                removeEntry(last);
+                last = null;
+            }
+        }
+
+        private class EntrySpliterator implements Spliterator<Map.Entry<K, V>> {
+            private final EntryList<K, V>[] buckets;
+            private final int end;
+            private int bucket;
+            private long estimatedSize;
+            // the spliterator that is not split yet traverses the chain
+            private boolean isChainTraversed;
+            private Entry<K, V> nextInChain = null;
+            private Iterator<Entry<K, V>> bucketIterator = null;
+
+            private EntrySpliterator(@NotNull EntryList<K, V>[] buckets,
+                                     int start,
+                                     int end,
+                                     long estimatedSize,
+                                     boolean isChainTraversed) {
+                this.buckets = buckets;
+                bucket = start;
+                this.end = end;
+                this.estimatedSize = estimatedSize;
+                this.isChainTraversed = isChainTraversed;
+                if (isChainTraversed) {
+                    nextInChain = head;
+                }
+            }
+
+            @Override
+            public boolean tryAdvance(@NotNull Consumer<? super Map.Entry<K, V>> action) {
+                if (isChainTraversed) {
+                    if (nextInChain == null) {
+                        return false;
+                    }
+                    Entry<K, V> entry = nextInChain;
+                    nextInChain = entry.next;
+                    // the traversal has started, splitting is not allowed anymore
+                    bucket = end;
+                    action.accept(entry);
+                    return true;
+                }
+                while (bucketIterator == null || !bucketIterator.hasNext()) {
+                    if (bucket >= end) {
+                        return false;
+                    }
+                    EntryList<K, V> list = buckets[bucket++];
+                    bucketIterator = list == null ? null : list.iterator();
+                }
+                action.accept(bucketIterator.next());
+                return true;
+            }
+
+            @Nullable
+            @Override
+            public Spliterator<Map.Entry<K, V>> trySplit() {
+                int middle = (bucket + end) >>> 1;
+                if (middle <= bucket || bucketIterator != null) {
+                    return null;
+                }
+                isChainTraversed = false;
+                nextInChain = null;
+                estimatedSize >>>= 1;
+                var prefix = new EntrySpliterator(buckets, bucket, middle, estimatedSize, false);
+                bucket = middle;
+                return prefix;
+            }
+
+            @Override
+            public long estimateSize() {
+                return estimatedSize;
+            }
+
+            @Override
+            public int characteristics() {
+                return isChainTraversed ? SIZED | DISTINCT | NONNULL : DISTINCT | NONNULL;
             }
         }
     }
@@ -0,0 +1,624 @@
+package ru.hse.anstkras.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Hashtable stored off the heap in memory mapped files that keeps the entries in the order of insertion
+ * like LinkedHashTable. Keys and values are converted to bytes by codecs, the keys are compared by their bytes.
+ *
+ * The data file is a log of records appended in the order of insertion, a removed record is marked as removed,
+ * so iteration walks the log skipping removed records. When the log is full and at least a half of it
+ * is removed records, the live records are copied to a new file that replaces the log.
+ * The index file is an open addressing table of slots that keep the hashes and the positions of the records.
+ *
+ * A record is committed by moving the end of the log in the header after the record is written,
+ * so the file stays consistent if the process crashes at any moment. When the hashtable is closed
+ * the index is marked as consistent with the log, otherwise it is rebuilt from the log on the next opening.
+ * Changes reach the disk when the operating system writes the mapped pages, force writes them immediately.
+ *
+ * The data file and the index are limited by 2 GB each.
+ * Null keys and values are not allowed
+ * The hashtable is not thread safe
+ */
+public class MappedHashTable<K, V> extends AbstractMap<K, V> implements Closeable {
+    private static final int MAGIC = 0x4D485442;
+    private static final int VERSION = 1;
+    // the header of the data file
+    private static final int MAGIC_POSITION = 0;
+    private static final int VERSION_POSITION = 4;
+    private static final int DATA_END_POSITION = 8;
+    private static final int SIZE_POSITION = 16;
+    private static final int CLEAN_POSITION = 20;
+    private static final int GARBAGE_POSITION = 24;
+    private static final int HEADER_SIZE = 32;
+    // the header of a record: key length, value length, hash and the live flag, followed by the key and the value
+    private static final int KEY_LENGTH_OFFSET = 0;
+    private static final int VALUE_LENGTH_OFFSET = 4;
+    private static final int HASH_OFFSET = 8;
+    private static final int LIVE_OFFSET = 12;
+    private static final int RECORD_HEADER_SIZE = 16;
+    // the header of the index file: magic, number of slots and the end of the log the index is consistent with
+    private static final int SLOTS_NUMBER_POSITION = 4;
+    private static final int INDEX_DATA_END_POSITION = 8;
+    private static final int INDEX_HEADER_SIZE = 16;
+    private static final int INITIAL_DATA_SIZE = 1 << 16;
+    private static final int INITIAL_SLOTS_NUMBER = 1 << 10;
+    private static final int MAXIMUM_FILE_SIZE = Integer.MAX_VALUE - 7;
+    private static final long EMPTY = 0;
+    private final @NotNull Path path;
+    private final @NotNull Path indexPath;
+    private final @NotNull Codec<K> keyCodec;
+    private final @NotNull Codec<V> valueCodec;
+    private FileChannel dataChannel;
+    private MappedByteBuffer data;
+    private final @NotNull FileChannel indexChannel;
+    private MappedByteBuffer index;
+    private int slotsNumber;
+    private boolean isClosed = false;
+    private Set<Map.Entry<K, V>> cachedEntrySet = null;
+
+    /**
+     * Opens the hashtable stored in the given file or creates a new one,
+     * the index is stored in the file with the .index suffix
+     * @throws IOException if the files can not be opened or the file is not a hashtable
+     */
+    public MappedHashTable(@NotNull Path path, @NotNull Codec<K> keyCodec, @NotNull Codec<V> valueCodec)
+            throws IOException {
+        this.path = path;
+        indexPath = path.resolveSibling(path.getFileName() + ".index");
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        dataChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel openedIndexChannel = null;
+        try {
+            boolean isNew = dataChannel.size() == 0;
+            if (dataChannel.size() > MAXIMUM_FILE_SIZE) {
+                throw new IOException("The file is too large");
+            }
+            data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL_DATA_SIZE, dataChannel.size()));
+            if (isNew) {
+                data.putInt(MAGIC_POSITION, MAGIC);
+                data.putInt(VERSION_POSITION, VERSION);
+                data.putLong(DATA_END_POSITION, HEADER_SIZE);
+            } else if (data.getInt(MAGIC_POSITION) != MAGIC || data.getInt(VERSION_POSITION) != VERSION) {
+                throw new IOException("The file is not a hashtable");
+            }
+
+            openedIndexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            indexChannel = openedIndexChannel;
+            if (!isNew && data.getInt(CLEAN_POSITION) == 1 && isIndexConsistent()) {
+                slotsNumber = index.getInt(SLOTS_NUMBER_POSITION);
+            } else {
+                rebuildIndex();
+            }
+            // the index is not consistent with the log until the hashtable is closed
+            data.putInt(CLEAN_POSITION, 0);
+            data.force();
+        } catch (IOException | RuntimeException exception) {
+            closeAfterFailure(dataChannel, exception);
+            closeAfterFailure(openedIndexChannel, exception);
+            throw exception;
+        }
+    }
+
+    @Override
+    public int size() {
+        checkOpen();
+        return data.getInt(SIZE_POSITION);
+    }
+
+    /**
+     * Checks if the given key is presented in the hash table.
+     * @throws  IllegalArgumentException in case of null argument
+     */
+    @Override
+    public boolean containsKey(@NotNull Object key) {
+        byte[] keyBytes = encodeKey(key);
+        return findSlot(keyBytes, hash(keyBytes)) != -1;
+    }
+
+    /**
+     * Looks for a value by the given key.
+     * If the key is not presented in the hash table returns null
+     * @throws  IllegalArgumentException in case of null argument
+     */
+    @Override
+    @Nullable
+    public V get(@NotNull Object key) {
+        byte[] keyBytes = encodeKey(key);
+        int slot = findSlot(keyBytes, hash(keyBytes));
+        return slot == -1 ? null : readValue(recordOf(getSlot(slot)));
+    }
+
+    /**
+     * Associates the given key with the given value and moves the key to the end of the insertion order.
+     * If there was an old value associated with the given key,
+     * than returns the old value, otherwise returns null
+     * @throws  IllegalArgumentException in case of null key or value
+     * @throws  IllegalStateException if the data file exceeds its size limit
+     */
+    @Override
+    @Nullable
+    public V put(@NotNull K key, @NotNull V value) {
+        byte[] keyBytes = encodeKey(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not allowed");
+        }
+        byte[] valueBytes = valueCodec.encode(value);
+        int hash = hash(keyBytes);
+        int recordSize = recordSize(keyBytes.length, valueBytes.length);
+        reserve(recordSize);
+
+        int slot = findSlot(keyBytes, hash);
+        int record = (int) dataEnd();
+        data.putInt(record + KEY_LENGTH_OFFSET, keyBytes.length);
+        data.putInt(record + VALUE_LENGTH_OFFSET, valueBytes.length);
+        data.putInt(record + HASH_OFFSET, hash);
+        data.putInt(record + LIVE_OFFSET, 1);
+        data.duplicate().position(record + RECORD_HEADER_SIZE).put(keyBytes).put(valueBytes);
+        // the record is committed when the end of the log moves past it
+        data.putLong(DATA_END_POSITION, record + recordSize);
+
+        if (slot == -1) {
+            insertSlot(slot(hash, record));
+            data.putInt(SIZE_POSITION, size() + 1);
+            growIndexIfNeeded();
+            return null;
+        }
+        int oldRecord = recordOf(getSlot(slot));
+        V oldValue = readValue(oldRecord);
+        setSlot(slot, slot(hash, record));
+        markRemoved(oldRecord);
+        return oldValue;
+    }
+
+    /**
+     * Removes the entry by the given key if exists, returns null otherwise.
+     * @throws  IllegalArgumentException in case of null argument
+     *
+     * @return the value of removed entry if exists, null otherwise
+     */
+    @Override
+    @Nullable
+    public V remove(@NotNull Object key) {
+        byte[] keyBytes = encodeKey(key);
+        int slot = findSlot(keyBytes, hash(keyBytes));
+        if (slot == -1) {
+            return null;
+        }
+        int record = recordOf(getSlot(slot));
+        V value = readValue(record);
+        markRemoved(record);
+        removeSlot(slot);
+        data.putInt(SIZE_POSITION, size() - 1);
+        return value;
+    }
+
+    /** Delete all the entries, the files keep their sizes */
+    @Override
+    public void clear() {
+        checkOpen();
+        data.putLong(DATA_END_POSITION, HEADER_SIZE);
+        data.putInt(SIZE_POSITION, 0);
+        data.putLong(GARBAGE_POSITION, 0);
+        for (int slot = 0; slot < slotsNumber; slot++) {
+            setSlot(slot, EMPTY);
+        }
+    }
+
+    /**
+     * Returns set that represents the set of entries in the order of insertion.
+     * The entries are copies, changing their values is not supported
+     */
+    @NotNull
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (cachedEntrySet == null) {
+            cachedEntrySet = new EntrySet();
+        }
+        return cachedEntrySet;
+    }
+
+    /** Writes all the changes to the disk */
+    public void force() {
+        checkOpen();
+        data.force();
+        index.force();
+    }
+
+    /**
+     * Copies the log to the given file, that can be opened as a hashtable.
+     * The records are copied as they are without decoding
+     */
+    public void snapshot(@NotNull Path target) throws IOException {
+        checkOpen();
+        data.force();
+        try (FileChannel targetChannel = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long end = dataEnd();
+            for (long position = 0; position < end; ) {
+                position += dataChannel.transferTo(position, end - position, targetChannel);
+            }
+            targetChannel.force(true);
+        }
+    }
+
+    /** Marks the index as consistent with the log, writes all the changes to the disk and closes the files */
+    @Override
+    public void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        index.putLong(INDEX_DATA_END_POSITION, dataEnd());
+        index.force();
+        data.putInt(CLEAN_POSITION, 1);
+        data.force();
+        isClosed = true;
+        dataChannel.close();
+        indexChannel.close();
+    }
+
+    // the hash of the bytes with the bits mixed like the finalizer of MurmurHash3
+    private static int hash(@NotNull byte[] bytes) {
+        int hash = Arrays.hashCode(bytes);
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    // the record size aligned by 8 bytes, so the positions of the records fit in the slots divided by 8
+    private static int recordSize(int keyLength, int valueLength) {
+        long size = (RECORD_HEADER_SIZE + (long) keyLength + valueLength + 7) & ~7L;
+        if (size > MAXIMUM_FILE_SIZE) {
+            throw new IllegalArgumentException("The entry is too large");
+        }
+        return (int) size;
+    }
+
+    // a slot keeps the hash in the higher half and the position of the record divided by 8 in the lower half
+    private static long slot(int hash, int record) {
+        return ((long) hash << 32) | (record >>> 3);
+    }
+
+    private static int hashOf(long slot) {
+        return (int) (slot >>> 32);
+    }
+
+    private static int recordOf(long slot) {
+        return (int) slot << 3;
+    }
+
+    private void checkOpen() {
+        if (isClosed) {
+            throw new IllegalStateException("The hashtable is closed");
+        }
+    }
+
+    @NotNull
+    @SuppressWarnings("unchecked")
+    private byte[] encodeKey(@Nullable Object key) {
+        checkOpen();
+        if (key == null) {
+            throw new IllegalArgumentException("Null keys are not allowed");
+        }
+        return keyCodec.encode((K) key);
+    }
+
+    private long dataEnd() {
+        return data.getLong(DATA_END_POSITION);
+    }
+
+    private int recordSize(int record) {
+        return recordSize(data.getInt(record + KEY_LENGTH_OFFSET), data.getInt(record + VALUE_LENGTH_OFFSET));
+    }
+
+    private boolean isLive(int record) {
+        return data.getInt(record + LIVE_OFFSET) == 1;
+    }
+
+    private void markRemoved(int record) {
+        data.putInt(record + LIVE_OFFSET, 0);
+        data.putLong(GARBAGE_POSITION, data.getLong(GARBAGE_POSITION) + recordSize(record));
+    }
+
+    @NotNull
+    private byte[] readBytes(int position, int length) {
+        byte[] bytes = new byte[length];
+        data.duplicate().position(position).get(bytes);
+        return bytes;
+    }
+
+    @NotNull
+    private K readKey(int record) {
+        return keyCodec.decode(readBytes(record + RECORD_HEADER_SIZE, data.getInt(record + KEY_LENGTH_OFFSET)));
+    }
+
+    @NotNull
+    private V readValue(int record) {
+        int keyLength = data.getInt(record + KEY_LENGTH_OFFSET);
+        return valueCodec.decode(readBytes(record + RECORD_HEADER_SIZE + keyLength,
+                data.getInt(record + VALUE_LENGTH_OFFSET)));
+    }
+
+    // compares the key of the record with the bytes without copying the key
+    private boolean hasKey(int record, @NotNull byte[] keyBytes) {
+        if (data.getInt(record + KEY_LENGTH_OFFSET) != keyBytes.length) {
+            return false;
+        }
+        int position = record + RECORD_HEADER_SIZE;
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (data.get(position + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // makes room for a record of the given size at the end of the log, compacting or growing it
+    private void reserve(int recordSize) {
+        if (dataEnd() + recordSize <= data.capacity()) {
+            return;
+        }
+        if (data.getLong(GARBAGE_POSITION) >= dataEnd() / 2) {
+            compact();
+            if (dataEnd() + recordSize <= data.capacity()) {
+                return;
+            }
+        }
+        long required = dataEnd() + recordSize;
+        if (required > MAXIMUM_FILE_SIZE) {
+            throw new IllegalStateException("The data file is full");
+        }
+        long newSize = Math.min(MAXIMUM_FILE_SIZE, Math.max(required, 2L * data.capacity()));
+        try {
+            data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, newSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // copies the live records to a new file that atomically replaces the log, than rebuilds the index
+    private void compact() {
+        Path compactedPath = path.resolveSibling(path.getFileName() + ".compact");
+        try {
+            try (FileChannel compactedChannel = FileChannel.open(compactedPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer compacted = compactedChannel.map(FileChannel.MapMode.READ_WRITE, 0, data.capacity());
+                int end = HEADER_SIZE;
+                for (int record = HEADER_SIZE; record < dataEnd(); record += recordSize(record)) {
+                    if (isLive(record)) {
+                        int recordSize = recordSize(record);
+                        compacted.duplicate().position(end)
+                                .put(data.duplicate().position(record).limit(record + recordSize));
+                        end += recordSize;
+                    }
+                }
+                compacted.putInt(MAGIC_POSITION, MAGIC);
+                compacted.putInt(VERSION_POSITION, VERSION);
+                compacted.putLong(DATA_END_POSITION, end);
+                compacted.putInt(SIZE_POSITION, size());
+                compacted.force();
+            }
+            Files.move(compactedPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dataChannel.close();
+            dataChannel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, dataChannel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        rebuildIndex();
+    }
+
+    // closes the channel opened before the failure, the failure of closing is suppressed by the original one
+    private static void closeAfterFailure(@Nullable FileChannel channel, @NotNull Exception exception) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException closeException) {
+            exception.addSuppressed(closeException);
+        }
+    }
+
+    private boolean isIndexConsistent() throws IOException {
+        if (indexChannel.size() < INDEX_HEADER_SIZE || indexChannel.size() > MAXIMUM_FILE_SIZE) {
+            return false;
+        }
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, indexChannel.size());
+        int slots = index.getInt(SLOTS_NUMBER_POSITION);
+        return index.getInt(MAGIC_POSITION) == MAGIC
+                && index.getLong(INDEX_DATA_END_POSITION) == dataEnd()
+                && slots > 0 && Integer.bitCount(slots) == 1
+                && INDEX_HEADER_SIZE + 8L * slots <= indexChannel.size();
+    }
+
+    // rebuilds the index and the counters of the header from the log, removing the duplicates left by a crash
+    private void rebuildIndex() {
+        int liveRecords = 0;
+        for (int record = HEADER_SIZE; record < dataEnd(); record += recordSize(record)) {
+            if (isLive(record)) {
+                liveRecords++;
+            }
+        }
+        allocateIndex(slotsNumberFor(liveRecords));
+
+        int size = 0;
+        long garbage = 0;
+        for (int record = HEADER_SIZE; record < dataEnd(); record += recordSize(record)) {
+            if (!isLive(record)) {
+                garbage += recordSize(record);
+                continue;
+            }
+            byte[] keyBytes = readBytes(record + RECORD_HEADER_SIZE, data.getInt(record + KEY_LENGTH_OFFSET));
+            int hash = data.getInt(record + HASH_OFFSET);
+            int slot = findSlot(keyBytes, hash);
+            if (slot == -1) {
+                insertSlot(slot(hash, record));
+                size++;
+            } else {
+                int oldRecord = recordOf(getSlot(slot));
+                data.putInt(oldRecord + LIVE_OFFSET, 0);
+                garbage += recordSize(oldRecord);
+                setSlot(slot, slot(hash, record));
+            }
+        }
+        data.putInt(SIZE_POSITION, size);
+        data.putLong(GARBAGE_POSITION, garbage);
+    }
+
+    // the power of two number of slots that keeps the load factor under 0.5
+    private static int slotsNumberFor(int entriesNumber) {
+        int slots = INITIAL_SLOTS_NUMBER;
+        while (slots / 2 < entriesNumber) {
+            slots *= 2;
+        }
+        return slots;
+    }
+
+    private void allocateIndex(int slotsNumber) {
+        long indexSize = INDEX_HEADER_SIZE + 8L * slotsNumber;
+        if (indexSize > MAXIMUM_FILE_SIZE) {
+            throw new IllegalStateException("The index file is full");
+        }
+        try {
+            index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, indexSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.slotsNumber = slotsNumber;
+        index.putInt(MAGIC_POSITION, MAGIC);
+        index.putInt(SLOTS_NUMBER_POSITION, slotsNumber);
+        index.putLong(INDEX_DATA_END_POSITION, -1);
+        for (int slot = 0; slot < slotsNumber; slot++) {
+            setSlot(slot, EMPTY);
+        }
+    }
+
+    private void growIndexIfNeeded() {
+        if (size() <= slotsNumber / 2) {
+            return;
+        }
+        long[] oldSlots = new long[slotsNumber];
+        for (int slot = 0; slot < slotsNumber; slot++) {
+            oldSlots[slot] = getSlot(slot);
+        }
+        allocateIndex(slotsNumber * 2);
+        for (long slot : oldSlots) {
+            if (slot != EMPTY) {
+                insertSlot(slot);
+            }
+        }
+    }
+
+    private long getSlot(int slot) {
+        return index.getLong(INDEX_HEADER_SIZE + 8 * slot);
+    }
+
+    private void setSlot(int slot, long value) {
+        index.putLong(INDEX_HEADER_SIZE + 8 * slot, value);
+    }
+
+    // returns the slot of the key or -1 if there is no such key
+    private int findSlot(@NotNull byte[] keyBytes, int hash) {
+        int mask = slotsNumber - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long value = getSlot(slot);
+            if (value == EMPTY) {
+                return -1;
+            }
+            if (hashOf(value) == hash && hasKey(recordOf(value), keyBytes)) {
+                return slot;
+            }
+        }
+    }
+
+    private void insertSlot(long value) {
+        int mask = slotsNumber - 1;
+        int slot = hashOf(value) & mask;
+        while (getSlot(slot) != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        setSlot(slot, value);
+    }
+
+    // removes the slot, shifting the following slots back instead of leaving a tombstone
+    private void removeSlot(int slot) {
+        int mask = slotsNumber - 1;
+        for (int next = (slot + 1) & mask; getSlot(next) != EMPTY; next = (next + 1) & mask) {
+            int home = hashOf(getSlot(next)) & mask;
+            // the entry can move to the freed slot if its home slot is not between the freed slot and its slot
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                setSlot(slot, getSlot(next));
+                slot = next;
+            }
+        }
+        setSlot(slot, EMPTY);
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @NotNull
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            checkOpen();
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return MappedHashTable.this.size();
+        }
+
+        private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+            private int next = skipRemoved(HEADER_SIZE);
+            private K lastKey = null;
+
+            @Override
+            public boolean hasNext() {
+                return next < dataEnd();
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int record = next;
+                next = skipRemoved(record + recordSize(record));
+                lastKey = readKey(record);
+                return new AbstractMap.SimpleImmutableEntry<>(lastKey, readValue(record));
+            }
+
+            @Override
+            public void remove() {
+                if (lastKey == null) {
+                    throw new IllegalStateException();
+                }
+                MappedHashTable.this.remove(lastKey);
+                lastKey = null;
+            }
+
+            private int skipRemoved(int record) {
+                while (record < dataEnd() && !isLive(record)) {
+                    record += recordSize(record);
+                }
+                return record;
+            }
+        }
+    }
+}
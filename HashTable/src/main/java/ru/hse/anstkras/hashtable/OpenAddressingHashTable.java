@@ -0,0 +1,400 @@
+package ru.hse.anstkras.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Implementation of hashtable based on open addressing with Robin Hood probing
+ * that keeps the entries in the order of insertion like LinkedHashTable.
+ * Keys, values and hashes of the entries are stored in flat arrays in the order of insertion,
+ * the power of two table of slots stores positions in these arrays.
+ * Removed entries leave holes in the arrays that are compacted when the arrays are full.
+ * Null keys are not allowed
+ */
+public class OpenAddressingHashTable<K, V> extends AbstractMap<K, V> {
+    private static final double DEFAULT_LOAD_FACTOR = 0.75;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int EMPTY = -1;
+    private final double loadFactor;
+    // positions of the entries in the entry arrays or EMPTY
+    private int[] slots;
+    // the entries in the order of insertion, removed entries have null keys
+    private Object[] keys;
+    private Object[] values;
+    private int[] hashes;
+    // the number of used positions in the entry arrays including the removed entries
+    private int entriesNumber;
+    private int size;
+    private Set<Map.Entry<K, V>> cachedEntrySet = null;
+
+    public OpenAddressingHashTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public OpenAddressingHashTable(int capacity) {
+        this(capacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Creates a hashtable with at least the given number of slots
+     * @throws IllegalArgumentException in case of negative capacity or load factor not between 0 and 1
+     */
+    public OpenAddressingHashTable(int capacity, double loadFactor) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity should not be negative");
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Load factor should be between 0 and 1");
+        }
+        this.loadFactor = loadFactor;
+        allocate(slotsNumber(capacity));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean empty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks if the given key is presented in the hash table.
+     * @throws  IllegalArgumentException in case of null argument
+     */
+    public boolean contains(@NotNull K key) {
+        return containsKey(key);
+    }
+
+    /**
+     * Checks if the given key is presented in the hash table.
+     * @throws  IllegalArgumentException in case of null argument
+     */
+    @Override
+    public boolean containsKey(@NotNull Object key) {
+        return findSlot(key, hash(key)) != EMPTY;
+    }
+
+    /**
+     * Looks for a value by the given key.
+     * If the key is not presented in the hash table returns null
+     * @throws  IllegalArgumentException in case of null argument
+     */
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(@NotNull Object key) {
+        int slot = findSlot(key, hash(key));
+        if (slot == EMPTY) {
+            return null;
+        }
+        return (V) values[slots[slot]];
+    }
+
+    /**
+     * Associates the given key with the given value and moves the key
+     * to the end of the insertion order.
+     * If there was an old value associated with the given key,
+     * than returns the old value, otherwise returns null
+     * Null value is allowed
+     * @throws  IllegalArgumentException in case of null key
+     *
+     * @return the old value if exists, null otherwise
+     */
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(@NotNull K key, @Nullable V value) {
+        int hash = hash(key);
+        int slot = findSlot(key, hash);
+        V oldValue = null;
+        if (slot != EMPTY) {
+            int position = slots[slot];
+            oldValue = (V) values[position];
+            if (position == entriesNumber - 1) {
+                values[position] = value;
+                return oldValue;
+            }
+            removeAt(slot);
+        }
+
+        if (entriesNumber == keys.length) {
+            rebuild();
+        }
+        int position = entriesNumber++;
+        keys[position] = key;
+        values[position] = value;
+        hashes[position] = hash;
+        insertSlot(position);
+        size++;
+        return oldValue;
+    }
+
+    /**
+     * Removes the entry by the given key if exists, returns null otherwise.
+     * @throws  IllegalArgumentException in case of null argument
+     *
+     * @return the value of removed entry if exists, null otherwise
+     */
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(@NotNull Object key) {
+        int slot = findSlot(key, hash(key));
+        if (slot == EMPTY) {
+            return null;
+        }
+        V value = (V) values[slots[slot]];
+        removeAt(slot);
+        return value;
+    }
+
+    /** Delete all the values in the hashtable and shrinks its capacity */
+    @Override
+    public void clear() {
+        allocate(DEFAULT_CAPACITY);
+        entriesNumber = 0;
+        size = 0;
+    }
+
+    /** Returns set that represents the set of map entries */
+    @NotNull
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (cachedEntrySet == null) {
+            cachedEntrySet = new EntrySet();
+        }
+        return cachedEntrySet;
+    }
+
+    private static int hash(@NotNull Object key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null keys are not allowed");
+        }
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    // the power of two number of slots not less than the given capacity
+    private static int slotsNumber(int capacity) {
+        return Math.max(2, Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1);
+    }
+
+    private void allocate(int slotsNumber) {
+        slots = new int[slotsNumber];
+        Arrays.fill(slots, EMPTY);
+        int entriesCapacity = Math.max(1, (int) (slotsNumber * loadFactor));
+        keys = new Object[entriesCapacity];
+        values = new Object[entriesCapacity];
+        hashes = new int[entriesCapacity];
+    }
+
+    // the distance from the slot the hash points to to the given slot
+    private int probeDistance(int hash, int slot) {
+        return (slot - hash) & (slots.length - 1);
+    }
+
+    // returns the slot of the key or EMPTY if there is no such key
+    private int findSlot(@NotNull Object key, int hash) {
+        int mask = slots.length - 1;
+        for (int slot = hash & mask, distance = 0; ; slot = (slot + 1) & mask, distance++) {
+            int position = slots[slot];
+            // Robin Hood invariant: the key would have taken the place of an entry closer to its home slot
+            if (position == EMPTY || probeDistance(hashes[position], slot) < distance) {
+                return EMPTY;
+            }
+            if (hashes[position] == hash && key.equals(keys[position])) {
+                return slot;
+            }
+        }
+    }
+
+    // puts the position into the table of slots, displacing the entries closer to their home slots
+    private void insertSlot(int position) {
+        int mask = slots.length - 1;
+        int slot = hashes[position] & mask;
+        int distance = 0;
+        while (true) {
+            int current = slots[slot];
+            if (current == EMPTY) {
+                slots[slot] = position;
+                return;
+            }
+            int currentDistance = probeDistance(hashes[current], slot);
+            if (currentDistance < distance) {
+                slots[slot] = position;
+                position = current;
+                distance = currentDistance;
+            }
+            slot = (slot + 1) & mask;
+            distance++;
+        }
+    }
+
+    // removes the entry of the slot, shifting the following entries back instead of leaving a tombstone
+    private void removeAt(int slot) {
+        int position = slots[slot];
+        int mask = slots.length - 1;
+        int next = (slot + 1) & mask;
+        while (slots[next] != EMPTY && probeDistance(hashes[slots[next]], next) > 0) {
+            slots[slot] = slots[next];
+            slot = next;
+            next = (next + 1) & mask;
+        }
+        slots[slot] = EMPTY;
+
+        keys[position] = null;
+        values[position] = null;
+        size--;
+        while (entriesNumber > 0 && keys[entriesNumber - 1] == null) {
+            entriesNumber--;
+        }
+    }
+
+    // compacts the entry arrays, grows the table if less than a half of the positions were removed
+    private void rebuild() {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        int oldEntriesNumber = entriesNumber;
+        allocate(size < oldKeys.length / 2 ? slots.length : slots.length * 2);
+
+        entriesNumber = 0;
+        for (int i = 0; i < oldEntriesNumber; i++) {
+            if (oldKeys[i] != null) {
+                keys[entriesNumber] = oldKeys[i];
+                values[entriesNumber] = oldValues[i];
+                hashes[entriesNumber] = oldHashes[i];
+                insertSlot(entriesNumber);
+                entriesNumber++;
+            }
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @NotNull
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return OpenAddressingHashTable.this.size();
+        }
+
+        private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+            private int next = skipRemoved(0);
+            private int last = EMPTY;
+
+            @Override
+            public boolean hasNext() {
+                return next < entriesNumber;
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                last = next;
+                next = skipRemoved(next + 1);
+                return new KeyEntry(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last == EMPTY || keys[last] == null) {
+                    throw new IllegalStateException();
+                }
+                OpenAddressingHashTable.this.remove(keys[last]);
+                last = EMPTY;
+            }
+
+            private int skipRemoved(int position) {
+                while (position < entriesNumber && keys[position] == null) {
+                    position++;
+                }
+                return position;
+            }
+        }
+    }
+
+    /**
+     * The entry of a key, changes of the value write through to the table while the key is in the table.
+     * The position of the key in the entry arrays is looked up again after the arrays are compacted,
+     * the entry of a removed key keeps its last value
+     */
+    private class KeyEntry implements Map.Entry<K, V> {
+        private final K key;
+        private V value;
+        private int position;
+
+        @SuppressWarnings("unchecked")
+        private KeyEntry(int position) {
+            this.position = position;
+            key = (K) keys[position];
+            value = (V) values[position];
+        }
+
+        @Override
+        @NotNull
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        @Nullable
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            if (updatePosition()) {
+                value = (V) values[position];
+            }
+            return value;
+        }
+
+        @Override
+        @Nullable
+        public V setValue(@Nullable V value) {
+            V previousValue = getValue();
+            if (updatePosition()) {
+                values[position] = value;
+            }
+            this.value = value;
+            return previousValue;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            var otherEntry = (Map.Entry<?, ?>) obj;
+            return key.equals(otherEntry.getKey()) && Objects.equals(getValue(), otherEntry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+
+        // finds the current position of the key, returns false if the key is not in the table
+        private boolean updatePosition() {
+            if (position != EMPTY && position < entriesNumber && keys[position] == key) {
+                return true;
+            }
+            int slot = findSlot(key, hash(key));
+            position = slot == EMPTY ? EMPTY : slots[slot];
+            return position != EMPTY;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package ru.hse.anstkras.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * AVL tree implementation of the EntryList interface for buckets with many entries.
+ * All the keys should be of the same class implementing Comparable of itself,
+ * the entries are ordered by the hash codes and then by the keys, so lookups take logarithmic time
+ * even if all the keys have the same hash code.
+ * Keys that compare as equal but are not equal are looked for in both subtrees.
+ */
+class TreeEntryList<K, V> implements EntryList<K, V> {
+    private final @NotNull Class<?> keyClass;
+    private TreeNode<K, V> root;
+    private int size;
+
+    /** Creates a tree of the entries of the list which should be treeifiable */
+    TreeEntryList(@NotNull EntryList<K, V> list) {
+        keyClass = list.iterator().next().getKey().getClass();
+        for (LinkedHashTable.Entry<K, V> entry : list) {
+            add(entry);
+        }
+    }
+
+    /** Checks if the keys of the list are of the same class implementing Comparable of itself */
+    static boolean isTreeifiable(@NotNull EntryList<?, ?> list) {
+        Class<?> keyClass = null;
+        for (LinkedHashTable.Entry<?, ?> entry : list) {
+            Object key = entry.getKey();
+            if (keyClass == null) {
+                keyClass = comparableClassOf(key);
+                if (keyClass == null) {
+                    return false;
+                }
+            } else if (key.getClass() != keyClass) {
+                return false;
+            }
+        }
+        return keyClass != null;
+    }
+
+    // returns the class of the key if it implements Comparable of itself, null otherwise
+    @Nullable
+    private static Class<?> comparableClassOf(@NotNull Object key) {
+        if (!(key instanceof Comparable)) {
+            return null;
+        }
+        Class<?> keyClass = key.getClass();
+        if (keyClass == String.class) {
+            return keyClass;
+        }
+        for (Type type : keyClass.getGenericInterfaces()) {
+            if (type instanceof ParameterizedType) {
+                var parameterizedType = (ParameterizedType) type;
+                Type[] arguments = parameterizedType.getActualTypeArguments();
+                if (parameterizedType.getRawType() == Comparable.class
+                        && arguments.length == 1 && arguments[0] == keyClass) {
+                    return keyClass;
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Checks if an entry with the given key can be added to the tree */
+    boolean accepts(@NotNull Object key) {
+        return key.getClass() == keyClass;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean empty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes the element with the given key if it is contained in the tree,
+     * otherwise returns null
+     *
+     * @param key  key of the element to remove
+     * @param hash hash code of the key
+     * @return removed element if it was contained in the tree, null otherwise
+     */
+    @Override
+    @Nullable
+    public LinkedHashTable.Entry<K, V> remove(@NotNull Object key, int hash) {
+        LinkedHashTable.Entry<K, V> entry = find(key, hash);
+        if (entry != null) {
+            root = remove(root, entry);
+            size--;
+        }
+        return entry;
+    }
+
+    /**
+     * Adds the element to the tree, its key should be accepted by the tree
+     *
+     * @param value element to be added to the tree
+     */
+    @Override
+    public void add(@NotNull LinkedHashTable.Entry<K, V> value) {
+        if (!accepts(value.getKey())) {
+            throw new IllegalArgumentException("The key is not comparable with the keys of the tree");
+        }
+        root = add(root, value);
+        size++;
+    }
+
+    /**
+     * Finds the element with the given key, comparing the hash codes before the keys
+     *
+     * @param key  key of the element to find
+     * @param hash hash code of the key
+     * @return the element with the given key or null if there is no such element
+     */
+    @Override
+    @Nullable
+    public LinkedHashTable.Entry<K, V> find(@NotNull Object key, int hash) {
+        if (!accepts(key)) {
+            // a key of another class can still be equal to one of the keys
+            for (LinkedHashTable.Entry<K, V> entry : this) {
+                if (entry.hasKey(key, hash)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+        TreeNode<K, V> node = find(root, key, hash);
+        return node == null ? null : node.entry;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Adds the elements of the other list to this tree
+     *
+     * @param other list to concatenate
+     */
+    @Override
+    public void concat(@NotNull EntryList<K, V> other) {
+        for (LinkedHashTable.Entry<K, V> entry : other) {
+            add(entry);
+        }
+    }
+
+    /** Iterates the elements in the order of the tree */
+    @NotNull
+    @Override
+    public Iterator<LinkedHashTable.Entry<K, V>> iterator() {
+        return new Iterator<>() {
+            private final ArrayDeque<TreeNode<K, V>> path = new ArrayDeque<>();
+
+            {
+                pushLeftPath(root);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public LinkedHashTable.Entry<K, V> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                TreeNode<K, V> node = path.pop();
+                pushLeftPath(node.right);
+                return node.entry;
+            }
+
+            private void pushLeftPath(@Nullable TreeNode<K, V> node) {
+                for (; node != null; node = node.left) {
+                    path.push(node);
+                }
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(@NotNull Object key, int hash, @NotNull LinkedHashTable.Entry<?, ?> entry) {
+        if (hash != entry.getHash()) {
+            return Integer.compare(hash, entry.getHash());
+        }
+        return ((Comparable<Object>) key).compareTo(entry.getKey());
+    }
+
+    // finds the node with the given key, a node comparing as equal to the key may be in any subtree
+    @Nullable
+    private static <K, V> TreeNode<K, V> find(@Nullable TreeNode<K, V> node, @NotNull Object key, int hash) {
+        while (node != null) {
+            int comparison = compare(key, hash, node.entry);
+            if (comparison < 0) {
+                node = node.left;
+            } else if (comparison > 0) {
+                node = node.right;
+            } else if (node.entry.hasKey(key, hash)) {
+                return node;
+            } else {
+                TreeNode<K, V> found = find(node.left, key, hash);
+                if (found != null) {
+                    return found;
+                }
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    private static int height(@Nullable TreeNode<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    @NotNull
+    private static <K, V> TreeNode<K, V> add(@Nullable TreeNode<K, V> node, @NotNull LinkedHashTable.Entry<K, V> entry) {
+        if (node == null) {
+            return new TreeNode<>(entry);
+        }
+        if (compare(entry.getKey(), entry.getHash(), node.entry) < 0) {
+            node.left = add(node.left, entry);
+        } else {
+            node.right = add(node.right, entry);
+        }
+        return balance(node);
+    }
+
+    @Nullable
+    private static <K, V> TreeNode<K, V> remove(@Nullable TreeNode<K, V> node, @NotNull LinkedHashTable.Entry<K, V> entry) {
+        if (node == null) {
+            return null;
+        }
+        if (node.entry == entry) {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            TreeNode<K, V> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.entry = successor.entry;
+            node.right = removeLeftmost(node.right);
+        } else {
+            int comparison = compare(entry.getKey(), entry.getHash(), node.entry);
+            if (comparison < 0 || (comparison == 0 && find(node.left, entry.getKey(), entry.getHash()) != null)) {
+                node.left = remove(node.left, entry);
+            } else {
+                node.right = remove(node.right, entry);
+            }
+        }
+        return balance(node);
+    }
+
+    @Nullable
+    private static <K, V> TreeNode<K, V> removeLeftmost(@NotNull TreeNode<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeLeftmost(node.left);
+        return balance(node);
+    }
+
+    // restores the AVL invariant: the heights of the subtrees differ by at most one
+    @NotNull
+    private static <K, V> TreeNode<K, V> balance(@NotNull TreeNode<K, V> node) {
+        int difference = height(node.left) - height(node.right);
+        if (difference > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (difference < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        node.updateHeight();
+        return node;
+    }
+
+    @NotNull
+    private static <K, V> TreeNode<K, V> rotateLeft(@NotNull TreeNode<K, V> node) {
+        TreeNode<K, V> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.updateHeight();
+        right.updateHeight();
+        return right;
+    }
+
+    @NotNull
+    private static <K, V> TreeNode<K, V> rotateRight(@NotNull TreeNode<K, V> node) {
+        TreeNode<K, V> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.updateHeight();
+        left.updateHeight();
+        return left;
+    }
+
+    private static class TreeNode<K, V> {
+        private LinkedHashTable.Entry<K, V> entry;
+        private TreeNode<K, V> left;
+        private TreeNode<K, V> right;
+        private int height = 1;
+
+        private TreeNode(@NotNull LinkedHashTable.Entry<K, V> entry) {
+            this.entry = entry;
+        }
+
+        private void updateHeight() {
+            height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package ru.hse.anstkras.hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    @Test
+    void lruEvictsLeastRecentlyUsed() {
+        var cache = new BoundedCache<Integer, String>(3);
+        cache.put(1, "1");
+        cache.put(2, "2");
+        cache.put(3, "3");
+        assertEquals("1", cache.get(1));
+        cache.put(4, "4");
+        assertEquals(3, cache.size());
+        assertNull(cache.get(2));
+        assertEquals("1", cache.get(1));
+        assertEquals("3", cache.get(3));
+        assertEquals("4", cache.get(4));
+    }
+
+    @Test
+    void statistics() {
+        var cache = new BoundedCache<Integer, String>(2);
+        cache.put(1, "1");
+        cache.put(2, "2");
+        cache.put(3, "3");
+        cache.get(1);
+        cache.get(2);
+        cache.get(3);
+        CacheStats stats = cache.getStats();
+        assertEquals(2, stats.getHitsNumber());
+        assertEquals(1, stats.getMissesNumber());
+        assertEquals(1, stats.getEvictionsNumber());
+        assertEquals(2.0 / 3, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void weightBound() {
+        var cache = new BoundedCache<Integer, String>(10, (key, value) -> value.length(), EvictionPolicy.LRU);
+        cache.put(1, "aaaa");
+        cache.put(2, "bbbb");
+        cache.put(3, "cccc");
+        assertEquals(8, cache.getWeight());
+        assertNull(cache.get(1));
+        cache.put(2, "bb");
+        assertEquals(6, cache.getWeight());
+        cache.put(4, "dddddddddddd");
+        assertNull(cache.get(4));
+        assertEquals(6, cache.getWeight());
+    }
+
+    @Test
+    void tinyLfuRejectsWeightedCandidateWithoutEvictions() {
+        var cache = new BoundedCache<String, Integer>(100, (key, value) -> value, EvictionPolicy.W_TINY_LFU);
+        cache.put("x", 49);
+        cache.put("y", 49);
+        for (int i = 0; i < 4; i++) {
+            cache.get("y");
+        }
+        cache.get("c");
+        cache.get("c");
+        cache.put("c", 98);
+        assertNull(cache.get("c"));
+        assertEquals(Integer.valueOf(49), cache.get("x"));
+        assertEquals(Integer.valueOf(49), cache.get("y"));
+        cache.put("heavy", 100);
+        assertNull(cache.get("heavy"));
+        assertEquals(2, cache.size());
+        assertEquals(98, cache.getWeight());
+    }
+
+    @Test
+    void loaderIsCalledOnMiss() {
+        var cache = new BoundedCache<Integer, String>(10);
+        int[] loadsNumber = {0};
+        for (int i = 0; i < 5; i++) {
+            assertEquals("42", cache.get(42, key -> {
+                loadsNumber[0]++;
+                return key.toString();
+            }));
+        }
+        assertEquals(1, loadsNumber[0]);
+        assertEquals(4, cache.getStats().getHitsNumber());
+    }
+
+    @Test
+    void nullValuesAreNotAllowed() {
+        var cache = new BoundedCache<Integer, String>(10, EvictionPolicy.W_TINY_LFU);
+        assertThrows(IllegalArgumentException.class, () -> cache.put(1, null));
+        assertThrows(IllegalArgumentException.class, () -> cache.get(null));
+    }
+
+    @Test
+    void tinyLfuKeepsFrequentEntriesDuringScan() {
+        var lru = new BoundedCache<Integer, Integer>(100, EvictionPolicy.LRU);
+        var tinyLfu = new BoundedCache<Integer, Integer>(100, EvictionPolicy.W_TINY_LFU);
+        // every fifth lookup is one of 50 hot keys, the rest are keys that are never repeated
+        for (int i = 0; i < 20_000; i++) {
+            int key = i % 5 == 0 ? (i / 5) % 50 : 1_000_000 + i;
+            lru.get(key, k -> k);
+            tinyLfu.get(key, k -> k);
+        }
+        assertEquals(100, lru.size());
+        assertEquals(100, tinyLfu.size());
+        assertEquals(0, lru.getStats().getHitsNumber());
+        assertTrue(tinyLfu.getStats().getHitRate() > 0.15);
+    }
+}
@@ -0,0 +1,234 @@
+package ru.hse.anstkras.hashtable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentLinkedHashTableTest {
+    private static final int THREADS_NUMBER = 8;
+    private ConcurrentLinkedHashTable<String, String> hashTable;
+
+    @BeforeEach
+    void init() {
+        hashTable = new ConcurrentLinkedHashTable<>();
+    }
+
+    private static void runInThreads(int threadsNumber, IntConsumer task) throws InterruptedException {
+        var threads = new Thread[threadsNumber];
+        for (int i = 0; i < threadsNumber; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> task.accept(index));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private interface IntConsumer {
+        void accept(int value);
+    }
+
+    @Test
+    void putAndGet() {
+        hashTable.put("1", "1");
+        hashTable.put("2", "2");
+        assertEquals("1", hashTable.get("1"));
+        assertEquals(2, hashTable.size());
+        assertNull(hashTable.get("3"));
+    }
+
+    @Test
+    void iterateOrder() {
+        hashTable.put("1", "1");
+        hashTable.put("2", "2");
+        hashTable.put("abc", "3");
+        hashTable.put("3", "4");
+        hashTable.put("2", "5");
+        assertEquals(Arrays.asList("1", "3", "4", "5"), new ArrayList<>(hashTable.values()));
+    }
+
+    @Test
+    void conditionalOperations() {
+        assertNull(hashTable.putIfAbsent("key", "1"));
+        assertEquals("1", hashTable.putIfAbsent("key", "2"));
+        assertFalse(hashTable.replace("key", "2", "3"));
+        assertTrue(hashTable.replace("key", "1", "3"));
+        assertNull(hashTable.replace("other", "1"));
+        assertFalse(hashTable.containsKey("other"));
+        assertFalse(hashTable.remove("key", "1"));
+        assertTrue(hashTable.remove("key", "3"));
+        assertTrue(hashTable.isEmpty());
+    }
+
+    @Test
+    void computeMethods() {
+        assertEquals("a", hashTable.computeIfAbsent("key", key -> "a"));
+        assertEquals("a", hashTable.computeIfAbsent("key", key -> "b"));
+        assertEquals("ac", hashTable.merge("key", "c", String::concat));
+        assertEquals("ac!", hashTable.computeIfPresent("key", (key, value) -> value + "!"));
+        assertNull(hashTable.compute("key", (key, value) -> null));
+        assertFalse(hashTable.containsKey("key"));
+    }
+
+    @Test
+    void nullsAreNotAllowed() {
+        assertThrows(IllegalArgumentException.class, () -> hashTable.put(null, "1"));
+        assertThrows(IllegalArgumentException.class, () -> hashTable.put("1", null));
+    }
+
+    @Test
+    void iteratorRemoveAndSetValue() {
+        for (int i = 0; i < 10; i++) {
+            hashTable.put("key" + i, "value" + i);
+        }
+        Iterator<Map.Entry<String, String>> iterator = hashTable.entrySet().iterator();
+        iterator.next().setValue("new");
+        iterator.next();
+        iterator.remove();
+        assertEquals("new", hashTable.get("key0"));
+        assertFalse(hashTable.containsKey("key1"));
+        assertEquals(9, hashTable.size());
+    }
+
+    @Test
+    void valueUpdatesKeepInsertionOrder() {
+        for (int i = 0; i < 5; i++) {
+            hashTable.put("key" + i, "value" + i);
+        }
+        hashTable.replaceAll((key, value) -> value + "!");
+        int visited = 0;
+        for (Map.Entry<String, String> entry : hashTable.entrySet()) {
+            entry.setValue(entry.getValue() + "?");
+            visited++;
+        }
+        assertEquals(5, visited);
+        hashTable.replace("key0", "new");
+        hashTable.merge("key1", "new", String::concat);
+        hashTable.compute("key2", (key, value) -> "new");
+        assertEquals(Arrays.asList("key0", "key1", "key2", "key3", "key4"), new ArrayList<>(hashTable.keySet()));
+        assertEquals(Arrays.asList("new", "value1!?new", "new", "value3!?", "value4!?"),
+                     new ArrayList<>(hashTable.values()));
+        hashTable.put("key0", "last");
+        assertEquals(Arrays.asList("key1", "key2", "key3", "key4", "key0"), new ArrayList<>(hashTable.keySet()));
+    }
+
+    @Test
+    void clearedNodesAreUnlinked() {
+        for (int i = 0; i < 1000; i++) {
+            hashTable.put("key" + i, "value" + i);
+        }
+        hashTable.clear();
+        assertTrue(hashTable.linkedNodesNumber() <= 1);
+        for (int i = 0; i < 64; i++) {
+            hashTable.put("key" + i, "value" + i);
+            hashTable.remove("key" + i);
+        }
+        assertTrue(hashTable.deadNodesNumber() >= 0);
+        assertEquals(hashTable.linkedNodesNumber(), hashTable.size() + hashTable.deadNodesNumber());
+        assertTrue(hashTable.linkedNodesNumber() <= 64);
+    }
+
+    @Test
+    void randomOperationsKeepInsertionOrder() {
+        var random = new Random(42);
+        var expected = new LinkedHashMap<Integer, Integer>();
+        var actual = new ConcurrentLinkedHashTable<Integer, Integer>(0, 4);
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), actual.remove(key));
+            } else {
+                Integer oldValue = expected.remove(key);
+                expected.put(key, i);
+                assertEquals(oldValue, actual.put(key, i));
+            }
+        }
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+    }
+
+    @Test
+    void concurrentPutsAreAllVisible() throws InterruptedException {
+        var table = new ConcurrentLinkedHashTable<Integer, Integer>();
+        runInThreads(THREADS_NUMBER, index -> {
+            for (int i = 0; i < 10_000; i++) {
+                table.put(i * THREADS_NUMBER + index, i);
+            }
+        });
+        assertEquals(10_000 * THREADS_NUMBER, table.size());
+        for (int i = 0; i < 10_000 * THREADS_NUMBER; i++) {
+            assertEquals(i / THREADS_NUMBER, (int) table.get(i));
+        }
+        var keys = new ArrayList<>(table.keySet());
+        assertEquals(table.size(), keys.size());
+    }
+
+    @Test
+    void concurrentMergeIsAtomic() throws InterruptedException {
+        var table = new ConcurrentLinkedHashTable<Integer, Integer>();
+        runInThreads(THREADS_NUMBER, index -> {
+            for (int i = 0; i < 10_000; i++) {
+                table.merge(i % 100, 1, Integer::sum);
+            }
+        });
+        for (int i = 0; i < 100; i++) {
+            assertEquals(100 * THREADS_NUMBER, (int) table.get(i));
+        }
+    }
+
+    @Test
+    void concurrentComputeIfAbsentCallsFunctionOnce() throws InterruptedException {
+        var table = new ConcurrentLinkedHashTable<Integer, Integer>();
+        var calls = new AtomicInteger();
+        runInThreads(THREADS_NUMBER, index -> {
+            for (int i = 0; i < 1000; i++) {
+                table.computeIfAbsent(i, key -> {
+                    calls.incrementAndGet();
+                    return key;
+                });
+            }
+        });
+        assertEquals(1000, calls.get());
+    }
+
+    @Test
+    void readsDuringConcurrentUpdatesSeeLiveKeys() throws InterruptedException {
+        var table = new ConcurrentLinkedHashTable<Integer, Integer>(0, 2);
+        for (int i = 0; i < 1000; i++) {
+            table.put(i, i);
+        }
+        var misses = new AtomicInteger();
+        runInThreads(4, index -> {
+            if (index == 0) {
+                // grows the tables of all the segments while the other threads read the first keys
+                for (int i = 0; i < 100_000; i++) {
+                    table.put(1000 + i, i);
+                }
+            } else {
+                for (int round = 0; round < 50; round++) {
+                    for (int key = 0; key < 1000; key++) {
+                        if (table.get(key) == null) {
+                            misses.incrementAndGet();
+                        }
+                    }
+                }
+            }
+        });
+        assertEquals(0, misses.get());
+        List<Integer> keys = new ArrayList<>(table.keySet());
+        assertEquals(101_000, keys.size());
+        assertEquals(0, (int) keys.get(0));
+        assertEquals(100_999, (int) keys.get(keys.size() - 1));
+    }
+}
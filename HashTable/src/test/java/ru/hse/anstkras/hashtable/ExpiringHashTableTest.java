@@ -0,0 +1,146 @@
+package ru.hse.anstkras.hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringHashTableTest {
+    private final AtomicLong time = new AtomicLong();
+
+    private ExpiringHashTable<String, String> newHashTable(ExpiryPolicy policy) {
+        return new ExpiringHashTable<>(10, TimeUnit.NANOSECONDS, policy, 0, TimeUnit.NANOSECONDS, time::get);
+    }
+
+    @Test
+    void expireAfterWrite() {
+        var hashTable = newHashTable(ExpiryPolicy.AFTER_WRITE);
+        hashTable.put("1", "1");
+        time.set(5);
+        hashTable.put("2", "2");
+        assertEquals("1", hashTable.get("1"));
+        time.set(10);
+        assertNull(hashTable.get("1"));
+        assertFalse(hashTable.containsKey("1"));
+        assertEquals("2", hashTable.get("2"));
+        assertEquals(1, hashTable.size());
+        time.set(15);
+        assertTrue(hashTable.isEmpty());
+    }
+
+    @Test
+    void putRestartsExpiration() {
+        var hashTable = newHashTable(ExpiryPolicy.AFTER_WRITE);
+        hashTable.put("1", "1");
+        hashTable.put("2", "2");
+        time.set(5);
+        assertEquals("1", hashTable.put("1", "3"));
+        time.set(12);
+        assertEquals(Arrays.asList("3"), new ArrayList<>(hashTable.values()));
+        time.set(30);
+        assertNull(hashTable.put("1", "4"));
+    }
+
+    @Test
+    void expireAfterAccess() {
+        var hashTable = newHashTable(ExpiryPolicy.AFTER_ACCESS);
+        hashTable.put("1", "1");
+        hashTable.put("2", "2");
+        for (int i = 1; i <= 5; i++) {
+            time.set(i * 5);
+            assertEquals("1", hashTable.get("1"));
+        }
+        assertNull(hashTable.get("2"));
+        assertEquals(Arrays.asList("1"), new ArrayList<>(hashTable.keySet()));
+        time.set(35);
+        assertFalse(hashTable.containsKey("1"));
+    }
+
+    @Test
+    void putRemovesExpiredEntries() {
+        var hashTable = newHashTable(ExpiryPolicy.AFTER_WRITE);
+        for (int i = 0; i < 1000; i++) {
+            hashTable.put("key" + i, "value" + i);
+        }
+        time.set(10);
+        for (int i = 0; i < 10; i++) {
+            hashTable.put("new" + i, "value" + i);
+        }
+        // every put removes a bounded number of expired entries
+        assertEquals(1000 - 10 * 16 + 10, hashTable.storedEntriesNumber());
+        for (int i = 10; i < 100; i++) {
+            hashTable.put("new" + i, "value" + i);
+        }
+        assertEquals(100, hashTable.storedEntriesNumber());
+        assertEquals(100, hashTable.size());
+        assertNull(hashTable.remove("key0"));
+        assertEquals("value0", hashTable.remove("new0"));
+    }
+
+    @Test
+    void sweeperRemovesExpiredEntries() throws InterruptedException {
+        try (var hashTable = new ExpiringHashTable<Integer, Integer>(
+                1, TimeUnit.MILLISECONDS, ExpiryPolicy.AFTER_WRITE, 1, TimeUnit.MILLISECONDS)) {
+            for (int i = 0; i < 100; i++) {
+                hashTable.put(i, i);
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (hashTable.storedEntriesNumber() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(0, hashTable.storedEntriesNumber());
+        }
+    }
+
+    @Test
+    void removeThroughViews() {
+        var hashTable = newHashTable(ExpiryPolicy.AFTER_WRITE);
+        for (int i = 0; i < 5; i++) {
+            hashTable.put(String.valueOf(i), "value" + i);
+        }
+        assertTrue(hashTable.keySet().remove("0"));
+        assertTrue(hashTable.values().remove("value1"));
+        assertTrue(hashTable.entrySet().removeIf(entry -> entry.getKey().equals("2")));
+        var iterator = hashTable.entrySet().iterator();
+        iterator.next();
+        iterator.remove();
+        assertEquals(Arrays.asList("4"), new ArrayList<>(hashTable.keySet()));
+        assertEquals(1, hashTable.storedEntriesNumber());
+    }
+
+    @Test
+    void sweeperStopsAfterHashTableIsCollected() throws InterruptedException {
+        Set<Thread> threads = new HashSet<>(Thread.getAllStackTraces().keySet());
+        var hashTable = new WeakReference<>(new ExpiringHashTable<Integer, Integer>(
+                1, TimeUnit.MILLISECONDS, ExpiryPolicy.AFTER_WRITE, 1, TimeUnit.MILLISECONDS));
+        Thread sweeper = null;
+        while (sweeper == null) {
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if (!threads.contains(thread) && thread.getName().equals("ExpiringHashTable sweeper")) {
+                    sweeper = thread;
+                }
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((hashTable.get() != null || sweeper.isAlive()) && System.nanoTime() < deadline) {
+            System.gc();
+            sweeper.join(10);
+        }
+        assertNull(hashTable.get());
+        assertFalse(sweeper.isAlive());
+    }
+
+    @Test
+    void nullKeysAreNotAllowed() {
+        var hashTable = newHashTable(ExpiryPolicy.AFTER_WRITE);
+        assertThrows(IllegalArgumentException.class, () -> hashTable.put(null, "1"));
+        assertThrows(IllegalArgumentException.class, () -> hashTable.get(null));
+    }
+}
@@ -6,8 +6,13 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -138,4 +143,188 @@ class LinkedHashTableTest {
     void iteratorEmptyEntrySet() {
         assertThrows(NoSuchElementException.class, () -> hashTable.entrySet().iterator().next());
     }
-}
\ No newline at end of file
+
+    @Test
+    void clearRemovesEntriesFromIteration() {
+        fill(hashTable, 100);
+        hashTable.clear();
+        assertFalse(hashTable.entrySet().iterator().hasNext());
+        hashTable.put("key", "value");
+        assertEquals(Arrays.asList("value"), new ArrayList<>(hashTable.values()));
+    }
+
+    @Test
+    void growthKeepsEntriesAndInsertionOrder() {
+        var random = new Random(42);
+        var expected = new LinkedHashMap<Integer, Integer>();
+        var actual = new LinkedHashTable<Integer, Integer>();
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(10_000) - 5_000;
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(key), actual.remove(key));
+            } else {
+                Integer oldValue = expected.remove(key);
+                expected.put(key, i);
+                assertEquals(oldValue, actual.put(key, i));
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+        for (int key = -5_000; key < 5_000; key++) {
+            assertEquals(expected.get(key), actual.get(key));
+            assertEquals(expected.containsKey(key), actual.contains(key));
+        }
+    }
+
+    @Test
+    void accessOrderMovesEntryOnGet() {
+        var accessOrdered = new LinkedHashTable<String, String>(10, 0.75, true);
+        fill(accessOrdered, 3);
+        accessOrdered.get("key0");
+        accessOrdered.get("key404");
+        assertEquals(Arrays.asList("value1", "value2", "value0"), new ArrayList<>(accessOrdered.values()));
+        fill(hashTable, 3);
+        hashTable.get("key0");
+        assertEquals(Arrays.asList("value0", "value1", "value2"), new ArrayList<>(hashTable.values()));
+    }
+
+    @Test
+    void removeEldestEntryBoundsSize() {
+        var bounded = new LinkedHashTable<String, String>(10, 0.75, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > 3;
+            }
+        };
+        fill(bounded, 3);
+        bounded.get("key0");
+        bounded.put("key3", "value3");
+        assertEquals(3, bounded.size());
+        assertFalse(bounded.contains("key1"));
+        assertEquals(Arrays.asList("value2", "value0", "value3"), new ArrayList<>(bounded.values()));
+    }
+
+    @Test
+    void putAllKeepsOrder() {
+        var source = new LinkedHashMap<String, String>();
+        for (int i = 0; i < 1000; i++) {
+            source.put("key" + i, "value" + i);
+        }
+        fill(hashTable, 10);
+        hashTable.putAll(source);
+        assertEquals(1000, hashTable.size());
+        assertEquals(new ArrayList<>(source.values()), new ArrayList<>(hashTable.values()));
+    }
+
+    @Test
+    void ensureCapacityKeepsEntries() {
+        fill(hashTable, 100);
+        hashTable.ensureCapacity(100_000);
+        fill(hashTable, 200);
+        assertEquals(200, hashTable.size());
+        assertEquals("value42", hashTable.get("key42"));
+        assertEquals("value142", hashTable.get("key142"));
+    }
+
+    @Test
+    void removeIf() {
+        fill(hashTable, 100);
+        assertTrue(hashTable.entrySet().removeIf(entry -> entry.getKey().length() == 5));
+        assertFalse(hashTable.removeIf(entry -> entry.getKey().length() == 5));
+        assertEquals(10, hashTable.size());
+        assertFalse(hashTable.contains("key10"));
+        assertEquals("value9", hashTable.get("key9"));
+        hashTable.values().removeIf(value -> value.equals("value3"));
+        assertEquals(Arrays.asList("value0", "value1", "value2", "value4", "value5", "value6", "value7", "value8", "value9"),
+                new ArrayList<>(hashTable.values()));
+    }
+
+    @Test
+    void parallelStream() {
+        var numbers = new LinkedHashTable<Integer, Integer>();
+        for (int i = 0; i < 100_000; i++) {
+            numbers.put(i, i);
+        }
+        var spliterator = numbers.entrySet().spliterator();
+        assertFalse(spliterator.hasCharacteristics(Spliterator.ORDERED));
+        assertNotNull(spliterator.trySplit());
+        assertFalse(spliterator.hasCharacteristics(Spliterator.ORDERED));
+        assertEquals(100_000L * 99_999 / 2,
+                numbers.entrySet().parallelStream().mapToLong(Map.Entry::getValue).sum());
+        assertEquals(100_000, numbers.entrySet().parallelStream().map(Map.Entry::getKey).distinct().count());
+    }
+
+    @Test
+    void sequentialStreamKeepsOrder() {
+        hashTable.put("3", "3");
+        hashTable.put("1", "1");
+        hashTable.put("2", "2");
+        assertEquals(Arrays.asList("3", "1", "2"),
+                hashTable.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+    }
+
+    @Test
+    void mixingSpreadsKeysWithEqualLowerBits() {
+        var numbers = new LinkedHashTable<Integer, Integer>();
+        for (int i = 0; i < 1000; i++) {
+            numbers.put(i << 16, i);
+        }
+        ChainLengthStatistics statistics = numbers.getChainLengthStatistics();
+        assertTrue(statistics.getMaxChainLength() <= 8, statistics.toString());
+        assertEquals(0, Integer.bitCount(statistics.getBucketsNumber()) - 1);
+        assertEquals(1000, statistics.getAverageChainLength() * statistics.getNonEmptyBucketsNumber(), 1e-6);
+    }
+
+    @Test
+    void hashStrategy() {
+        var collidingTable = new LinkedHashTable<String, String>(key -> 42);
+        fill(collidingTable, 100);
+        collidingTable.remove("key50");
+        assertEquals("value42", collidingTable.get("key42"));
+        assertNull(collidingTable.get("key50"));
+        assertEquals(99, collidingTable.getChainLengthStatistics().getMaxChainLength());
+        assertEquals(1, collidingTable.getChainLengthStatistics().getNonEmptyBucketsNumber());
+    }
+
+    @Test
+    void nullKeysAreNotAllowed() {
+        assertThrows(IllegalArgumentException.class, () -> hashTable.put(null, "value"));
+        assertThrows(IllegalArgumentException.class, () -> hashTable.get(null));
+    }
+
+    @Test
+    void collidingComparableKeys() {
+        var random = new Random(42);
+        var expected = new LinkedHashMap<Integer, Integer>();
+        var actual = new LinkedHashTable<Integer, Integer>(key -> key % 3);
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(1_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), actual.remove(key));
+            } else {
+                Integer oldValue = expected.remove(key);
+                expected.put(key, i);
+                assertEquals(oldValue, actual.put(key, i));
+            }
+        }
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+        expected.keySet().removeIf(key -> key > 3);
+        actual.removeIf(entry -> entry.getKey() > 3);
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+    }
+
+    @Test
+    void collidingKeysOfDifferentClasses() {
+        var mixedTable = new LinkedHashTable<Object, Integer>(key -> 0);
+        for (int i = 0; i < 20; i++) {
+            mixedTable.put(i, i);
+        }
+        mixedTable.put("key", -1);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Integer.valueOf(i), mixedTable.get(i));
+        }
+        assertEquals(Integer.valueOf(-1), mixedTable.get("key"));
+        assertEquals(Integer.valueOf(-1), mixedTable.remove("key"));
+        assertEquals(20, mixedTable.size());
+    }
+}
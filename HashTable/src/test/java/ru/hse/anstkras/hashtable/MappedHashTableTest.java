@@ -0,0 +1,185 @@
+package ru.hse.anstkras.hashtable;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedHashTableTest {
+    private Path directory;
+    private Path path;
+    private MappedHashTable<String, String> hashTable;
+
+    private MappedHashTable<String, String> open(Path path) throws IOException {
+        return new MappedHashTable<>(path, Codec.strings(), Codec.strings());
+    }
+
+    @BeforeEach
+    void init() throws IOException {
+        directory = Files.createTempDirectory("mapped-hashtable");
+        path = directory.resolve("table");
+        hashTable = open(path);
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        hashTable.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    void putGetRemove() {
+        assertNull(hashTable.put("1", "one"));
+        assertNull(hashTable.put("2", "two"));
+        assertEquals("one", hashTable.put("1", "uno"));
+        assertEquals("uno", hashTable.get("1"));
+        assertTrue(hashTable.containsKey("2"));
+        assertEquals("two", hashTable.remove("2"));
+        assertNull(hashTable.remove("2"));
+        assertNull(hashTable.get("3"));
+        assertEquals(1, hashTable.size());
+        assertThrows(IllegalArgumentException.class, () -> hashTable.put(null, "1"));
+        assertThrows(IllegalArgumentException.class, () -> hashTable.put("1", null));
+    }
+
+    @Test
+    void iterateOrder() {
+        hashTable.put("1", "1");
+        hashTable.put("2", "2");
+        hashTable.put("abc", "3");
+        hashTable.put("3", "4");
+        hashTable.put("2", "5");
+        assertEquals(Arrays.asList("1", "3", "4", "5"), new ArrayList<>(hashTable.values()));
+        hashTable.entrySet().removeIf(entry -> entry.getKey().equals("abc"));
+        assertEquals(Arrays.asList("1", "3", "2"), new ArrayList<>(hashTable.keySet()));
+    }
+
+    @Test
+    void reopenAfterClose() throws IOException {
+        for (int i = 0; i < 10_000; i++) {
+            hashTable.put("key" + i, "value" + i);
+        }
+        hashTable.remove("key42");
+        hashTable.close();
+        hashTable = open(path);
+        assertEquals(9_999, hashTable.size());
+        assertEquals("value43", hashTable.get("key43"));
+        assertNull(hashTable.get("key42"));
+        assertEquals("key0", hashTable.keySet().iterator().next());
+    }
+
+    @Test
+    void reopenAfterCrash() throws IOException {
+        for (int i = 0; i < 1000; i++) {
+            hashTable.put("key" + i, "value" + i);
+        }
+        hashTable.put("key0", "new value");
+        hashTable.remove("key1");
+        // the hashtable is not closed, so the index is rebuilt from the log
+        var reopened = open(path);
+        assertEquals(999, reopened.size());
+        assertEquals("new value", reopened.get("key0"));
+        assertNull(reopened.get("key1"));
+        assertEquals("key2", reopened.keySet().iterator().next());
+        reopened.close();
+    }
+
+    @Test
+    void compaction() throws IOException {
+        for (int i = 0; i < 100_000; i++) {
+            hashTable.put("key" + i % 100, "value" + i);
+        }
+        assertEquals(100, hashTable.size());
+        assertEquals("value99999", hashTable.get("key99"));
+        assertTrue(Files.size(path) <= 1 << 16, "the log should be compacted instead of growing");
+        hashTable.close();
+        hashTable = open(path);
+        assertEquals("value99950", hashTable.get("key50"));
+    }
+
+    @Test
+    void snapshot() throws IOException {
+        hashTable.put("1", "1");
+        hashTable.put("2", "2");
+        Path snapshotPath = directory.resolve("snapshot");
+        hashTable.snapshot(snapshotPath);
+        hashTable.put("1", "changed");
+        hashTable.remove("2");
+        try (var snapshot = open(snapshotPath)) {
+            assertEquals(Arrays.asList("1", "2"), new ArrayList<>(snapshot.values()));
+        }
+    }
+
+    @Test
+    void byteArrayKeysAreComparedByContents() throws IOException {
+        try (var bytes = new MappedHashTable<>(directory.resolve("bytes"), Codec.bytes(), Codec.bytes())) {
+            bytes.put(new byte[]{1, 2, 3}, new byte[]{4});
+            assertArrayEquals(new byte[]{4}, bytes.get(new byte[]{1, 2, 3}));
+        }
+    }
+
+    @Test
+    void randomOperations() {
+        var random = new Random(42);
+        var expected = new LinkedHashMap<String, String>();
+        for (int i = 0; i < 50_000; i++) {
+            String key = "key" + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), hashTable.remove(key));
+            } else {
+                String oldValue = expected.remove(key);
+                expected.put(key, "value" + i);
+                assertEquals(oldValue, hashTable.put(key, "value" + i));
+            }
+        }
+        assertEquals(expected.size(), hashTable.size());
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(hashTable.entrySet()));
+    }
+
+    @Test
+    void failedOpeningClosesFiles() throws IOException {
+        hashTable.put("key", "value");
+        hashTable.close();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            // an unclean log with a record longer than the file makes the index rebuild fail
+            channel.write(ByteBuffer.allocate(4), 20);
+            channel.write(ByteBuffer.allocate(4).putInt(0, 1 << 20), 32);
+        }
+        Path descriptors = Path.of("/proc/self/fd");
+        long openedFilesNumber = Files.isDirectory(descriptors) ? countFiles(descriptors) : 0;
+        assertThrows(RuntimeException.class, () -> open(path));
+        if (Files.isDirectory(descriptors)) {
+            assertEquals(openedFilesNumber, countFiles(descriptors));
+        }
+        Files.delete(path);
+        hashTable = open(path);
+    }
+
+    private static long countFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void closedHashTable() throws IOException {
+        hashTable.close();
+        assertThrows(IllegalStateException.class, () -> hashTable.get("1"));
+    }
+}
@@ -0,0 +1,220 @@
+package ru.hse.anstkras.hashtable;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenAddressingHashTableTest {
+    private OpenAddressingHashTable<String, String> hashTable;
+
+
+    private void fill(OpenAddressingHashTable<String, String> hashTable, int n) {
+        for (int i = 0; i < n; i++) {
+            hashTable.put("key" + i, "value" + i);
+        }
+    }
+
+    @BeforeEach
+    void init() {
+        hashTable = new OpenAddressingHashTable<>();
+    }
+
+    @AfterEach
+    void makeNull() {
+        hashTable = null;
+    }
+
+    @Test
+    void empty() {
+        assertTrue(hashTable.empty());
+    }
+
+    @Test
+    void notEmpty() {
+        hashTable.put("key0", "value0");
+        assertFalse(hashTable.empty());
+    }
+
+    @Test
+    void size() {
+        hashTable.put("key0", "value0");
+        hashTable.put("key1", "value1");
+        assertEquals(2, hashTable.size());
+    }
+
+    @Test
+    void contains() {
+        fill(hashTable, 50);
+        assertTrue(hashTable.contains("key21"));
+    }
+
+    @Test
+    void get() {
+        fill(hashTable, 50);
+        assertEquals("value21", hashTable.get("key21"));
+    }
+
+    @Test
+    void getNull() {
+        fill(hashTable, 50);
+        assertNull(hashTable.get("123"));
+    }
+
+    @Test
+    void putIdenticalKeys() {
+        hashTable.put("123", "1");
+        hashTable.put("123", "2");
+        assertEquals("2", hashTable.get("123"));
+    }
+
+    @Test
+    void put() {
+        fill(hashTable, 42);
+        assertEquals(42, hashTable.size());
+    }
+
+    @Test
+    void remove() {
+        fill(hashTable, 50);
+        hashTable.remove("key21");
+        assertFalse(hashTable.contains("key21"));
+    }
+
+    @Test
+    void removeNull() {
+        fill(hashTable, 50);
+        assertNull(hashTable.remove("123"));
+    }
+
+    @Test
+    void clear() {
+        fill(hashTable, 100);
+        hashTable.clear();
+        assertTrue(hashTable.empty());
+    }
+
+    @Test
+    void iterateOrder() {
+        hashTable.put("1", "1");
+        hashTable.put("2", "2");
+        hashTable.put("abc", "3");
+        hashTable.put("3", "4");
+        hashTable.put("2", "5");
+        List<String> expectedAnswer = Arrays.asList("1", "3", "4", "5");
+        List<String> actualAnswer = new ArrayList<>(hashTable.values());
+        assertEquals(expectedAnswer, actualAnswer);
+    }
+
+    @Test
+    void mixPutAndRemoveAndThanIterate() {
+        hashTable.put("1", "1");
+        hashTable.put("2", "c");
+        hashTable.put("abc", "3");
+        hashTable.remove("1");
+        hashTable.remove("0");
+        hashTable.put("3", "4");
+        hashTable.put("1", "6");
+        hashTable.put("2", "5");
+        hashTable.remove("2");
+        List<String> expectedAnswer = Arrays.asList("3", "4", "6");
+        List<String> actualAnswer = new ArrayList<>(hashTable.values());
+        assertEquals(expectedAnswer, actualAnswer);
+    }
+
+    @Test
+    void sizeEntrySet() {
+        fill(hashTable, 10);
+        assertEquals(10, hashTable.entrySet().size());
+    }
+
+    @Test
+    void iteratorEmptyEntrySet() {
+        assertThrows(NoSuchElementException.class, () -> hashTable.entrySet().iterator().next());
+    }
+
+    @Test
+    void iteratorRemove() {
+        fill(hashTable, 10);
+        Iterator<Map.Entry<String, String>> iterator = hashTable.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey().endsWith("3")) {
+                iterator.remove();
+            }
+        }
+        assertEquals(9, hashTable.size());
+        assertFalse(hashTable.contains("key3"));
+        assertEquals("value4", hashTable.get("key4"));
+    }
+
+    @Test
+    void setValueWritesThrough() {
+        fill(hashTable, 10);
+        hashTable.entrySet().iterator().next().setValue("new");
+        assertEquals("new", hashTable.get("key0"));
+    }
+
+    @Test
+    void entryFollowsKeyAfterRebuild() {
+        fill(hashTable, 10);
+        Iterator<Map.Entry<String, String>> iterator = hashTable.entrySet().iterator();
+        iterator.next();
+        Map.Entry<String, String> entry = iterator.next();
+        hashTable.remove("key0");
+        for (int i = 0; i < 100; i++) {
+            hashTable.put("other" + i, "value");
+        }
+        assertEquals("key1", entry.getKey());
+        entry.setValue("new");
+        assertEquals("new", hashTable.get("key1"));
+        assertEquals("value2", hashTable.get("key2"));
+        hashTable.remove("key1");
+        for (int i = 0; i < 1000; i++) {
+            hashTable.put("another" + i, "value");
+        }
+        assertEquals("key1", entry.getKey());
+        assertEquals("new", entry.getValue());
+        assertEquals(entry, Map.entry("key1", "new"));
+        assertEquals("key1".hashCode() ^ "new".hashCode(), entry.hashCode());
+        entry.setValue("other");
+        assertFalse(hashTable.containsKey("key1"));
+        assertEquals(1108, hashTable.size());
+    }
+
+    @Test
+    void nullKeyIsNotAllowed() {
+        assertThrows(IllegalArgumentException.class, () -> hashTable.put(null, "1"));
+    }
+
+    @Test
+    void randomOperationsKeepInsertionOrder() {
+        var random = new Random(42);
+        var expected = new LinkedHashMap<Integer, Integer>();
+        var actual = new OpenAddressingHashTable<Integer, Integer>();
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), actual.remove(key));
+            } else {
+                Integer oldValue = expected.remove(key);
+                expected.put(key, i);
+                assertEquals(oldValue, actual.put(key, i));
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+        for (int key = 0; key < 1000; key++) {
+            assertEquals(expected.get(key), actual.get(key));
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package ru.hse.anstkras.hashtable;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TreeEntryListTest {
+    private TreeEntryList<String, String> list;
+
+    private static LinkedEntryList<String, String> singletonList(String key) {
+        var list = new LinkedEntryList<String, String>();
+        list.add(new LinkedHashTable.Entry<>(key, key));
+        return list;
+    }
+
+    private void fill(EntryList<String, String> list, int n) {
+        for (int i = 0; i < n; i++) {
+            list.add(new LinkedHashTable.Entry<>("key" + i, "value" + i));
+        }
+    }
+
+    @BeforeEach
+    void init() {
+        list = new TreeEntryList<>(singletonList("first"));
+    }
+
+    @AfterEach
+    void makeNull() {
+        list = null;
+    }
+
+    @Test
+    void empty() {
+        list.remove(new LinkedHashTable.Entry<>("first", null));
+        assertTrue(list.empty());
+    }
+
+    @Test
+    void notEmpty() {
+        list.add(new LinkedHashTable.Entry<>("key0", "value0"));
+        assertFalse(list.empty());
+    }
+
+    @Test
+    void size() {
+        list.add(new LinkedHashTable.Entry<>("key0", "value0"));
+        list.add(new LinkedHashTable.Entry<>("key1", "value1"));
+        assertEquals(3, list.size());
+    }
+
+    @Test
+    void find() {
+        fill(list, 50);
+        LinkedHashTable.Entry<String, String> entryToFind = new LinkedHashTable.Entry<>("key21", null);
+        assertEquals(new LinkedHashTable.Entry<>("key21", "value21"), list.find(entryToFind));
+    }
+
+    @Test
+    void contains() {
+        fill(list, 50);
+        LinkedHashTable.Entry<String, String> entryToFind = new LinkedHashTable.Entry<>("key21", null);
+        assertTrue(list.contains(entryToFind));
+    }
+
+    @Test
+    void addAndRemove() {
+        LinkedHashTable.Entry<String, String> entry = new LinkedHashTable.Entry<>("key", "value");
+        list.add(entry);
+        list.remove(entry);
+        assertEquals(1, list.size());
+    }
+
+    @Test
+    void add() {
+        fill(list, 42);
+        assertEquals(43, list.size());
+    }
+
+
+    @Test
+    void remove() {
+        fill(list, 50);
+        LinkedHashTable.Entry<String, String> entryToRemove = new LinkedHashTable.Entry<>("key21", null);
+        list.remove(entryToRemove);
+        assertFalse(list.contains(entryToRemove));
+    }
+
+    @Test
+    void removeAbsent() {
+        assertNull(list.remove(new LinkedHashTable.Entry<>("123", "456")));
+    }
+
+    @Test
+    void clear() {
+        fill(list, 100);
+        list.clear();
+        assertTrue(list.empty());
+    }
+
+    @Test
+    void concat() {
+        fill(list, 100);
+        var list2 = new LinkedEntryList<String, String>();
+        fill(list2, 100);
+        list.concat(list2);
+        assertEquals(201, list.size());
+    }
+
+    @Test
+    void iterator() {
+        fill(list, 100);
+        Iterator<LinkedHashTable.Entry<String, String>> it = list.iterator();
+        int count = 0;
+        while (it.hasNext()) {
+            count++;
+            it.next();
+        }
+        assertEquals(101, count);
+    }
+
+    @Test
+    void treeifiable() {
+        fill(list, 10);
+        assertTrue(TreeEntryList.isTreeifiable(list));
+        var mixedList = new LinkedEntryList<Object, String>();
+        mixedList.add(new LinkedHashTable.Entry<>("key", "value"));
+        mixedList.add(new LinkedHashTable.Entry<>(42, "value"));
+        assertFalse(TreeEntryList.isTreeifiable(mixedList));
+        assertFalse(list.accepts(42));
+        assertThrows(IllegalArgumentException.class, () -> ((EntryList) list).add(new LinkedHashTable.Entry<>(42, "42")));
+    }
+
+    @Test
+    void keysComparingAsEqual() {
+        var keys = new LinkedEntryList<TiedKey, Integer>();
+        keys.add(new LinkedHashTable.Entry<>(new TiedKey(0), 0, 0));
+        var tree = new TreeEntryList<>(keys);
+        for (int i = 1; i < 100; i++) {
+            tree.add(new LinkedHashTable.Entry<>(new TiedKey(i), 0, i));
+        }
+        for (int i = 0; i < 100; i += 2) {
+            assertNotNull(tree.remove(new TiedKey(i), 0));
+        }
+        assertEquals(50, tree.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 1, tree.find(new TiedKey(i), 0) != null);
+        }
+    }
+
+    @Test
+    void keysComparableWithOtherClass() {
+        var table = new LinkedHashTable<Object, Integer>();
+        for (int i = 0; i < 20; i++) {
+            table.put(new StringComparableKey(i), i);
+        }
+        table.put("0", -1);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(Integer.valueOf(i), table.get(new StringComparableKey(i)));
+        }
+        assertEquals(Integer.valueOf(-1), table.get("0"));
+        var list = new LinkedEntryList<StringComparableKey, Integer>();
+        list.add(new LinkedHashTable.Entry<>(new StringComparableKey(0), 0));
+        assertFalse(TreeEntryList.isTreeifiable(list));
+    }
+
+    private static class TiedKey implements Comparable<TiedKey> {
+        private final int id;
+
+        private TiedKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(TiedKey other) {
+            return 0;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TiedKey && ((TiedKey) obj).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+
+    private static class StringComparableKey implements Comparable<String> {
+        private final int id;
+
+        private StringComparableKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(String other) {
+            return other.compareTo(String.valueOf(id));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof StringComparableKey && ((StringComparableKey) obj).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return "0".hashCode();
+        }
+    }
+
+    @Test
+    void equalHashes() {
+        var tree = new TreeEntryList<>(singletonList("0"));
+        for (int i = 1; i < 1000; i++) {
+            tree.add(new LinkedHashTable.Entry<>(String.valueOf(i), 0, String.valueOf(i)));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertNotNull(tree.remove(String.valueOf(i), i == 0 ? "0".hashCode() : 0));
+        }
+        assertEquals(500, tree.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 1, tree.find(String.valueOf(i), 0) != null);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package ru.hse.anstkras.threadpool;
+
+/**
+ * Snapshot of the counters that describe how much the thread pool's threads
+ * interfere with each other while exchanging tasks
+ */
+public class ContentionStatistics {
+    private final long contendedAcquisitions;
+    private final long steals;
+    private final long failedSteals;
+    private final long parks;
+
+    ContentionStatistics(long contendedAcquisitions, long steals, long failedSteals, long parks) {
+        this.contendedAcquisitions = contendedAcquisitions;
+        this.steals = steals;
+        this.failedSteals = failedSteals;
+        this.parks = parks;
+    }
+
+    /**
+     * Returns the number of times a thread had to wait for another thread
+     * to release the shared queue's lock
+     */
+    public long getContendedAcquisitions() {
+        return contendedAcquisitions;
+    }
+
+    /** Returns the number of tasks taken from other threads' deques */
+    public long getSteals() {
+        return steals;
+    }
+
+    /** Returns the number of steal attempts that lost a race to another thread */
+    public long getFailedSteals() {
+        return failedSteals;
+    }
+
+    /** Returns the number of times a thread went to sleep because there were no tasks */
+    public long getParks() {
+        return parks;
+    }
+
+    @Override
+    public String toString() {
+        return "ContentionStatistics{contendedAcquisitions=" + contendedAcquisitions
+                + ", steals=" + steals
+                + ", failedSteals=" + failedSteals
+                + ", parks=" + parks + "}";
+    }
+}
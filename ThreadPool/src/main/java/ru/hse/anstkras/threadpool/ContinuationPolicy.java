@@ -0,0 +1,16 @@
+package ru.hse.anstkras.threadpool;
+
+/** Specifies where a function passed to {@link LightFuture#thenApply} is computed */
+public enum ContinuationPolicy {
+    /** The continuation is added to the thread pool's queue as a separate task */
+    ENQUEUE,
+
+    /**
+     * The continuation is computed right away by the thread that completed the parent task,
+     * or by the calling thread if the parent task is already completed.
+     * Suitable for cheap functions only since it delays the other continuations of the task.
+     * Nested inline continuations are enqueued after reaching the depth limit
+     * to avoid stack overflow.
+     */
+    INLINE
+}
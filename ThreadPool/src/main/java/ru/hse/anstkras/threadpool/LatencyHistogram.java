@@ -0,0 +1,128 @@
+package ru.hse.anstkras.threadpool;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative values in nanoseconds with logarithmic buckets.
+ * Every power of two is split into 16 buckets, so a recorded value is reported
+ * with a relative error of at most 1/16. Recording takes a single atomic increment.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS_NUMBER = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS_NUMBER = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS_NUMBER;
+    private final AtomicLongArray counts;
+
+    LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKETS_NUMBER);
+    }
+
+    private LatencyHistogram(AtomicLongArray counts) {
+        this.counts = counts;
+    }
+
+    /** Returns the number of recorded values */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the value that is greater than or equal to the given percentage of recorded values,
+     * up to the bucket precision, or 0 if nothing has been recorded
+     *
+     * @param percentile a number from 0 to 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return highestValueOf(i);
+            }
+        }
+        return highestValueOf(counts.length() - 1);
+    }
+
+    /** Returns the highest recorded value up to the bucket precision or 0 if nothing has been recorded */
+    public long getMaxValue() {
+        for (int i = counts.length() - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) {
+                return highestValueOf(i);
+            }
+        }
+        return 0;
+    }
+
+    /** Returns the mean of recorded values up to the bucket precision or 0 if nothing has been recorded */
+    public double getMean() {
+        long count = 0;
+        double sum = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long bucketCount = counts.get(i);
+            if (bucketCount != 0) {
+                count += bucketCount;
+                sum += (double) bucketCount * ((double) lowestValueOf(i) + highestValueOf(i)) / 2;
+            }
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{count=" + getCount()
+                + ", p50=" + getValueAtPercentile(50)
+                + ", p99=" + getValueAtPercentile(99)
+                + ", p99.9=" + getValueAtPercentile(99.9)
+                + ", max=" + getMaxValue() + "}";
+    }
+
+    /** Records the value, negative values are recorded as zero */
+    void record(long value) {
+        counts.incrementAndGet(bucketOf(Math.max(value, 0)));
+    }
+
+    /** Returns a copy of the histogram which is not changed by further recording */
+    LatencyHistogram snapshot() {
+        var copy = new AtomicLongArray(counts.length());
+        for (int i = 0; i < counts.length(); i++) {
+            copy.set(i, counts.get(i));
+        }
+        return new LatencyHistogram(copy);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS_NUMBER) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS_NUMBER;
+        return (shift + 1) * SUB_BUCKETS_NUMBER + subBucket;
+    }
+
+    private static long lowestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS_NUMBER) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS_NUMBER - 1;
+        long subBucket = bucket % SUB_BUCKETS_NUMBER + SUB_BUCKETS_NUMBER;
+        return subBucket << shift;
+    }
+
+    private static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS_NUMBER) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS_NUMBER - 1;
+        return lowestValueOf(bucket) + (1L << shift) - 1;
+    }
+}
@@ -3,6 +3,10 @@ package ru.hse.anstkras.threadpool;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /**
@@ -14,6 +18,22 @@ public interface LightFuture<V> {
     /** Check if the computation is completed and result is ready */
     boolean isReady();
 
+    /** Check if the computation is completed with an exception or cancelled */
+    boolean isCompletedExceptionally();
+
+    /** Check if the task was cancelled before it was completed */
+    boolean isCancelled();
+
+    /**
+     * Cancels the task if it is not completed yet, the task is removed from the thread pool's queue
+     * and its continuations are cancelled as well.
+     * get() of a cancelled task throws LightExecutionException caused by CancellationException
+     *
+     * @param mayInterruptIfRunning whether the thread computing the task should be interrupted
+     * @return true if the task was cancelled by this call
+     */
+    boolean cancel(boolean mayInterruptIfRunning);
+
     /**
      * If computation is completed than returns result
      * otherwise waits until computation is completed
@@ -24,10 +44,94 @@ public interface LightFuture<V> {
     @Nullable
     V get() throws LightExecutionException;
 
+    /**
+     * If computation is completed than returns result
+     * otherwise waits at most the given time until computation is completed
+     *
+     * @return the result of computation
+     * @throws LightExecutionException in case of task computation throws an exception
+     * @throws TimeoutException        if the computation is not completed in time
+     * @throws InterruptedException    if the current thread was interrupted while waiting
+     */
+    @Nullable
+    V get(long timeout, @NotNull TimeUnit unit) throws InterruptedException, TimeoutException, LightExecutionException;
+
     /**
      * Constructs new LightFuture that represents an application of
-     * the given function to computed result of the task
+     * the given function to computed result of the task.
+     * The function is computed according to the thread pool's continuation policy
      */
     @NotNull
     <R> LightFuture<R> thenApply(@NotNull Function<? super V, R> function);
+
+    /**
+     * Constructs new LightFuture that represents an application of
+     * the given function to computed result of the task.
+     * The function is computed according to the given continuation policy
+     */
+    @NotNull
+    <R> LightFuture<R> thenApply(@NotNull Function<? super V, R> function, @NotNull ContinuationPolicy policy);
+
+    /**
+     * Constructs new LightFuture that is completed with the result of the future
+     * returned by the given function applied to computed result of the task.
+     * No thread waits for the returned future to be completed
+     */
+    @NotNull
+    <R> LightFuture<R> thenCompose(@NotNull Function<? super V, ? extends LightFuture<R>> function);
+
+    /**
+     * Constructs new LightFuture that represents an application of the given function
+     * to computed results of the task and the other task.
+     * The function is computed once both tasks are completed
+     */
+    @NotNull
+    <U, R> LightFuture<R> thenCombine(@NotNull LightFuture<U> other,
+                                      @NotNull BiFunction<? super V, ? super U, R> function);
+
+    /**
+     * Constructs new LightFuture that represents an application of the given function
+     * to computed result of the task or to the exception thrown by its computation.
+     * One of the function arguments is always null
+     */
+    @NotNull
+    <R> LightFuture<R> handle(@NotNull BiFunction<? super V, LightExecutionException, R> function);
+
+    /**
+     * Constructs new LightFuture that has the same result as the task if it is completed successfully,
+     * otherwise it represents an application of the given function to the exception
+     */
+    @NotNull
+    LightFuture<V> exceptionally(@NotNull Function<LightExecutionException, ? extends V> function);
+
+    /**
+     * Constructs a LightFuture that is completed when all the given futures are completed.
+     * Its result is the list of the futures' results in the same order,
+     * if any of the futures fails than the combined future fails with its exception
+     *
+     * @throws IllegalArgumentException if there are no futures
+     *                                  or any of them is not created by a thread pool
+     */
+    @NotNull
+    static <V> LightFuture<List<V>> allOf(@NotNull List<? extends LightFuture<? extends V>> futures) {
+        if (futures.isEmpty()) {
+            throw new IllegalArgumentException("There should be at least one future");
+        }
+        return ThreadPoolTask.asTask(futures.get(0)).getThreadPool().allOf(futures);
+    }
+
+    /**
+     * Constructs a LightFuture that is completed when any of the given futures is completed,
+     * with the same result or exception
+     *
+     * @throws IllegalArgumentException if there are no futures
+     *                                  or any of them is not created by a thread pool
+     */
+    @NotNull
+    static <V> LightFuture<V> anyOf(@NotNull List<? extends LightFuture<? extends V>> futures) {
+        if (futures.isEmpty()) {
+            throw new IllegalArgumentException("There should be at least one future");
+        }
+        return ThreadPoolTask.asTask(futures.get(0)).getThreadPool().anyOf(futures);
+    }
 }
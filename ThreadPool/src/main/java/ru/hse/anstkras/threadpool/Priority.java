@@ -0,0 +1,29 @@
+package ru.hse.anstkras.threadpool;
+
+/**
+ * Specifies how soon a queued task is taken by the thread pool in the shared queue mode.
+ * Every priority has its own queue, and a saturated pool takes tasks from the queues
+ * in proportion to their weights, so that lower priority tasks are delayed but never starved.
+ * Continuations inherit the priority of the task they continue
+ */
+public enum Priority {
+    /** Latency sensitive tasks, taken first from an idle queue */
+    HIGH(16),
+
+    /** The priority of the tasks submitted without one */
+    NORMAL(4),
+
+    /** Background batch tasks */
+    LOW(1);
+
+    private final int weight;
+
+    Priority(int weight) {
+        this.weight = weight;
+    }
+
+    // the relative share of the pool's throughput the priority gets when all the queues are busy
+    int getWeight() {
+        return weight;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.hse.anstkras.threadpool;
+
+/** Specifies what the thread pool does with a submitted task when its queue is full */
+public enum RejectionPolicy {
+    /** The submitting thread waits until there is space in the queue */
+    BLOCK,
+
+    /** The task is computed right away by the submitting thread */
+    CALLER_RUNS,
+
+    /**
+     * The oldest task in the queue is removed and completed with a LightExecutionException
+     * caused by RejectedExecutionException, the submitted task takes its place
+     */
+    DISCARD_OLDEST,
+
+    /** The submission fails with RejectedExecutionException */
+    ABORT
+}
@@ -0,0 +1,20 @@
+package ru.hse.anstkras.threadpool;
+
+/** Specifies how the thread pool distributes tasks between its threads */
+public enum SchedulingMode {
+    /** All threads take tasks from a single queue guarded by a lock */
+    SHARED_QUEUE,
+
+    /**
+     * Every thread owns a deque of tasks it pushes to and pops from without locking,
+     * idle threads steal tasks from the other threads' deques
+     */
+    WORK_STEALING,
+
+    /**
+     * Every task runs on a new thread, virtual if the runtime supports virtual threads.
+     * The threads number of the pool limits the number of simultaneously running tasks,
+     * the rest of tasks wait in a queue
+     */
+    THREAD_PER_TASK
+}
@@ -0,0 +1,63 @@
+package ru.hse.anstkras.threadpool;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Passes its tasks to the thread pool one at a time in the order they were added:
+ * the next task is passed only after the previous one is completed.
+ * Does not take locks, the thread that makes the number of pending tasks positive
+ * or completes a task while there are more pending tasks passes the next one.
+ */
+class SerialTaskQueue {
+    private final @NotNull Queue<ThreadPoolTask<?>> tasks = new ConcurrentLinkedQueue<>();
+    // the number of added tasks that are not completed yet
+    private final @NotNull AtomicInteger pendingTasksNumber = new AtomicInteger();
+    private final @NotNull Consumer<ThreadPoolTask<?>> taskExecutor;
+    private final @NotNull Runnable onTaskSkipped;
+
+    /**
+     * Creates an empty queue
+     *
+     * @param taskExecutor  passes a task to the thread pool
+     * @param onTaskSkipped action to be run for every task completed before it was passed, e.g. cancelled
+     */
+    SerialTaskQueue(@NotNull Consumer<ThreadPoolTask<?>> taskExecutor, @NotNull Runnable onTaskSkipped) {
+        this.taskExecutor = taskExecutor;
+        this.onTaskSkipped = onTaskSkipped;
+    }
+
+    void add(@NotNull ThreadPoolTask<?> task) {
+        tasks.add(task);
+        if (pendingTasksNumber.getAndIncrement() == 0) {
+            executeNext();
+        }
+    }
+
+    // passes the next not completed task, there is at least one pending task in the queue
+    private void executeNext() {
+        while (true) {
+            ThreadPoolTask<?> task = tasks.poll();
+            assert task != null;
+            if (!task.isReady()) {
+                task.whenComplete(this::onTaskCompleted);
+                taskExecutor.accept(task);
+                return;
+            }
+            onTaskSkipped.run();
+            if (pendingTasksNumber.decrementAndGet() == 0) {
+                return;
+            }
+        }
+    }
+
+    private void onTaskCompleted() {
+        if (pendingTasksNumber.decrementAndGet() > 0) {
+            executeNext();
+        }
+    }
+}
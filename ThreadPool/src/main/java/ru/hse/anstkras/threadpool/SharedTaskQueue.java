@@ -0,0 +1,233 @@
+package ru.hse.anstkras.threadpool;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Queue shared by all the threads of the pool and guarded by one lock.
+ * Tasks are split into FIFO levels which are served by stride scheduling:
+ * every level has a pass value, the next task is taken from the non-empty level
+ * with the smallest pass, which then grows by the inverse of the level's weight.
+ * A level that becomes non-empty starts from the pass of the last served level,
+ * so a burst of work on one level can not lock out the others.
+ */
+class SharedTaskQueue<T> implements TaskQueue<T> {
+    private final @NotNull ArrayDeque<T>[] levels;
+    private final @NotNull ToIntFunction<? super T> levelFunction;
+    private final @NotNull long[] strides;
+    // all the fields below are guarded by the lock
+    private final @NotNull long[] passes;
+    private long currentPass;
+    private int size;
+    private final @NotNull ReentrantLock lock = new ReentrantLock();
+    private final @NotNull Condition notEmpty = lock.newCondition();
+    private final @NotNull LongAdder contendedAcquisitions = new LongAdder();
+    private final @NotNull LongAdder parks = new LongAdder();
+    // the number of threads waiting for a task
+    private int waitingThreads;
+    // the number of waiting threads already signalled about a new task
+    private int signalledThreads;
+
+    /** Creates a queue with a single FIFO level */
+    SharedTaskQueue() {
+        this(new int[]{1}, task -> 0);
+    }
+
+    /**
+     * Creates a queue with a level for every weight
+     *
+     * @param weights       relative shares of the levels when all of them are not empty
+     * @param levelFunction returns the index of the level the task goes to
+     */
+    @SuppressWarnings("unchecked")
+    SharedTaskQueue(@NotNull int[] weights, @NotNull ToIntFunction<? super T> levelFunction) {
+        this.levelFunction = levelFunction;
+        levels = (ArrayDeque<T>[]) new ArrayDeque[weights.length];
+        strides = new long[weights.length];
+        passes = new long[weights.length];
+        int maxWeight = Arrays.stream(weights).max().orElse(1);
+        for (int i = 0; i < weights.length; i++) {
+            levels[i] = new ArrayDeque<>();
+            strides[i] = (maxWeight + weights[i] - 1) / weights[i];
+        }
+    }
+
+    @Override
+    public boolean add(@NotNull T task, int workerIndex) {
+        lock();
+        try {
+            addToLevel(task);
+            notEmpty.signal();
+            if (waitingThreads > signalledThreads) {
+                signalledThreads++;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int addAll(@NotNull Collection<? extends T> newTasks, int workerIndex) {
+        if (newTasks.isEmpty()) {
+            return 0;
+        }
+
+        lock();
+        try {
+            for (T task : newTasks) {
+                addToLevel(task);
+            }
+            int threadsToWake = Math.min(newTasks.size(), waitingThreads);
+            for (int i = 0; i < threadsToWake; i++) {
+                notEmpty.signal();
+            }
+            int wokenThreads = Math.min(newTasks.size(), waitingThreads - signalledThreads);
+            signalledThreads += wokenThreads;
+            return wokenThreads;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @NotNull
+    public T take(int workerIndex) throws InterruptedException {
+        lock();
+        try {
+            while (size == 0) {
+                parks.increment();
+                waitingThreads++;
+                try {
+                    notEmpty.await();
+                } finally {
+                    onWakeUp();
+                }
+            }
+            return removeNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @Nullable
+    public T poll(int workerIndex, long timeoutNanos) throws InterruptedException {
+        lock();
+        try {
+            while (size == 0) {
+                if (timeoutNanos <= 0) {
+                    return null;
+                }
+                parks.increment();
+                waitingThreads++;
+                try {
+                    timeoutNanos = notEmpty.awaitNanos(timeoutNanos);
+                } finally {
+                    onWakeUp();
+                }
+            }
+            return removeNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Removes the oldest task of the lowest non-empty level */
+    @Override
+    @Nullable
+    public T pollOldest() {
+        lock();
+        try {
+            for (int i = levels.length - 1; i >= 0; i--) {
+                if (!levels[i].isEmpty()) {
+                    size--;
+                    return levels[i].remove();
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(@NotNull T task) {
+        lock();
+        try {
+            if (levels[levelFunction.applyAsInt(task)].remove(task)) {
+                size--;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @NotNull
+    public ContentionStatistics getContentionStatistics() {
+        return new ContentionStatistics(contendedAcquisitions.sum(), 0, 0, parks.sum());
+    }
+
+    // called with the lock held
+    private void addToLevel(@NotNull T task) {
+        int level = levelFunction.applyAsInt(task);
+        if (levels[level].isEmpty()) {
+            passes[level] = Math.max(passes[level], currentPass);
+        }
+        levels[level].add(task);
+        size++;
+    }
+
+    // called with the lock held if the queue is not empty, ties are resolved in favour of the first level
+    @NotNull
+    private T removeNext() {
+        int next = -1;
+        for (int i = 0; i < levels.length; i++) {
+            if (!levels[i].isEmpty() && (next < 0 || passes[i] < passes[next])) {
+                next = i;
+            }
+        }
+        currentPass = passes[next];
+        passes[next] += strides[next];
+        size--;
+        return levels[next].remove();
+    }
+
+    // called with the lock held by a thread that stopped waiting
+    private void onWakeUp() {
+        waitingThreads--;
+        if (signalledThreads > 0) {
+            signalledThreads--;
+        }
+    }
+
+    // acquires the lock counting the cases when it is held by another thread
+    private void lock() {
+        if (!lock.tryLock()) {
+            contendedAcquisitions.increment();
+            lock.lock();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.hse.anstkras.threadpool;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Listener that accumulates the data for the thread pool's statistics */
+class StatisticsCollector implements ThreadPoolListener {
+    private final long startTime = System.nanoTime();
+    private final @NotNull LongAdder queuedTasksNumber = new LongAdder();
+    private final @NotNull LongAdder finishedTasksNumber = new LongAdder();
+    private final @NotNull LatencyHistogram waitTimes = new LatencyHistogram();
+    private final @NotNull LatencyHistogram[] waitTimesByPriority = new LatencyHistogram[Priority.values().length];
+    private final @NotNull LatencyHistogram executionTimes = new LatencyHistogram();
+    private final @NotNull AtomicLongArray busyTimes;
+
+    StatisticsCollector(int threadsNumber) {
+        busyTimes = new AtomicLongArray(threadsNumber);
+        for (int i = 0; i < waitTimesByPriority.length; i++) {
+            waitTimesByPriority[i] = new LatencyHistogram();
+        }
+    }
+
+    @Override
+    public void onTaskQueued(@NotNull LightFuture<?> task) {
+        queuedTasksNumber.increment();
+    }
+
+    @Override
+    public void onTaskStarted(@NotNull LightFuture<?> task, int workerIndex, long waitTimeNanos) {
+        waitTimes.record(waitTimeNanos);
+        if (task instanceof ThreadPoolTask) {
+            waitTimesByPriority[((ThreadPoolTask<?>) task).getPriority().ordinal()].record(waitTimeNanos);
+        }
+    }
+
+    @Override
+    public void onTaskFinished(@NotNull LightFuture<?> task, int workerIndex, long executionTimeNanos) {
+        finishedTasksNumber.increment();
+        executionTimes.record(executionTimeNanos);
+        if (workerIndex >= 0 && workerIndex < busyTimes.length()) {
+            busyTimes.addAndGet(workerIndex, executionTimeNanos);
+        }
+    }
+
+    long getQueuedTasksNumber() {
+        return queuedTasksNumber.sum();
+    }
+
+    long getFinishedTasksNumber() {
+        return finishedTasksNumber.sum();
+    }
+
+    @NotNull
+    LatencyHistogram getWaitTimes() {
+        return waitTimes.snapshot();
+    }
+
+    @NotNull
+    LatencyHistogram[] getWaitTimesByPriority() {
+        var snapshots = new LatencyHistogram[waitTimesByPriority.length];
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = waitTimesByPriority[i].snapshot();
+        }
+        return snapshots;
+    }
+
+    @NotNull
+    LatencyHistogram getExecutionTimes() {
+        return executionTimes.snapshot();
+    }
+
+    // the share of time since the collector was created that every thread spent computing tasks
+    @NotNull
+    double[] getUtilization() {
+        long elapsed = Math.max(System.nanoTime() - startTime, 1);
+        var utilization = new double[busyTimes.length()];
+        for (int i = 0; i < utilization.length; i++) {
+            utilization[i] = Math.min(1.0, (double) busyTimes.get(i) / elapsed);
+        }
+        return utilization;
+    }
+}
@@ -0,0 +1,70 @@
+package ru.hse.anstkras.threadpool;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+
+/** A queue the thread pool's threads take their tasks from */
+interface TaskQueue<T> {
+    /**
+     * Adds the task to the queue and wakes up a waiting thread if there is one
+     *
+     * @param task        task to be added
+     * @param workerIndex index of the pool thread that adds the task
+     *                    or -1 if the task is added by a thread outside of the pool
+     * @return true if a waiting thread was woken up to take the task
+     */
+    boolean add(@NotNull T task, int workerIndex);
+
+    /**
+     * Adds all the tasks to the queue at once and wakes up
+     * as many waiting threads as there are new tasks
+     *
+     * @param tasks       tasks to be added
+     * @param workerIndex index of the pool thread that adds the tasks
+     *                    or -1 if the tasks are added by a thread outside of the pool
+     * @return the number of waiting threads woken up to take the tasks
+     */
+    int addAll(@NotNull Collection<? extends T> tasks, int workerIndex);
+
+    /**
+     * Removes a task from the queue, waits until a task is available if the queue is empty
+     *
+     * @param workerIndex index of the pool thread that takes the task
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    @NotNull
+    T take(int workerIndex) throws InterruptedException;
+
+    /**
+     * Removes a task from the queue, waits at most timeoutNanos until a task is available
+     *
+     * @param workerIndex index of the pool thread that takes the task
+     * @return the removed task or null if no task became available in time
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    @Nullable
+    T poll(int workerIndex, long timeoutNanos) throws InterruptedException;
+
+    /**
+     * Removes the task that has been waiting in the queue for the longest time without waiting
+     *
+     * @return the removed task or null if the queue is empty
+     */
+    @Nullable
+    T pollOldest();
+
+    /**
+     * Removes the task from the queue if the queue supports removal
+     *
+     * @return true if the task was removed
+     */
+    boolean remove(@NotNull T task);
+
+    /** Returns the number of tasks in the queue */
+    int size();
+
+    @NotNull
+    ContentionStatistics getContentionStatistics();
+}
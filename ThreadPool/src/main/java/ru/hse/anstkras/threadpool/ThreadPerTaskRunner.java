@@ -0,0 +1,158 @@
+package ru.hse.anstkras.threadpool;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs every task on a new thread, virtual if the runtime supports virtual threads,
+ * and limits the number of simultaneously running tasks.
+ * Tasks that exceed the limit wait in a queue until one of the running tasks finishes.
+ */
+class ThreadPerTaskRunner {
+    private static final @Nullable ThreadFactory VIRTUAL_THREAD_FACTORY = virtualThreadFactory();
+    private final int maxConcurrency;
+    private final @NotNull ThreadFactory threadFactory = createThreadFactory();
+    private final @NotNull Queue<ThreadPoolTask<?>> waitingTasks = new ConcurrentLinkedQueue<>();
+    private final @NotNull Set<Thread> runningThreads = ConcurrentHashMap.newKeySet();
+    private final @NotNull AtomicInteger permits;
+    private final @NotNull Runnable onTaskStarted;
+    private final @NotNull Consumer<ThreadPoolTask<?>> taskExecutor;
+    private volatile boolean isShutDown = false;
+
+    /**
+     * Creates a runner for the given concurrency limit
+     *
+     * @param onTaskStarted action to be run every time a task leaves the waiting queue
+     * @param taskExecutor  computes a task on the task's thread
+     */
+    ThreadPerTaskRunner(int maxConcurrency,
+                        @NotNull Runnable onTaskStarted,
+                        @NotNull Consumer<ThreadPoolTask<?>> taskExecutor) {
+        this.maxConcurrency = maxConcurrency;
+        this.onTaskStarted = onTaskStarted;
+        this.taskExecutor = taskExecutor;
+        permits = new AtomicInteger(maxConcurrency);
+    }
+
+    /** Checks if the runtime provides virtual threads */
+    static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    /** Starts the task right away if the concurrency limit allows it, otherwise queues the task */
+    void add(@NotNull ThreadPoolTask<?> task) {
+        waitingTasks.add(task);
+        startWaitingTasks();
+    }
+
+    /** Starts as many of the tasks as the concurrency limit allows and queues the rest */
+    void addAll(@NotNull Collection<? extends ThreadPoolTask<?>> tasks) {
+        waitingTasks.addAll(tasks);
+        startWaitingTasks();
+    }
+
+    /** Interrupts the running tasks and waits for their threads to finish, waiting tasks are dropped */
+    void shutdown() throws InterruptedException {
+        isShutDown = true;
+        waitingTasks.clear();
+        for (Thread thread : runningThreads) {
+            thread.interrupt();
+        }
+        for (Thread thread : runningThreads) {
+            thread.join();
+        }
+    }
+
+    /** Removes the task that has been waiting for the longest time, returns null if there are no waiting tasks */
+    @Nullable
+    ThreadPoolTask<?> pollOldest() {
+        return waitingTasks.poll();
+    }
+
+    /** Removes the task from the waiting queue, returns false if the task is not waiting */
+    boolean remove(@NotNull ThreadPoolTask<?> task) {
+        return waitingTasks.remove(task);
+    }
+
+    int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    int waitingTasksNumber() {
+        return waitingTasks.size();
+    }
+
+    private void startWaitingTasks() {
+        while (!isShutDown && !waitingTasks.isEmpty() && acquirePermit()) {
+            ThreadPoolTask<?> task = waitingTasks.poll();
+            if (task == null) {
+                // another thread has taken the task, check the queue again after releasing the permit
+                permits.incrementAndGet();
+                continue;
+            }
+            onTaskStarted.run();
+            start(task);
+        }
+    }
+
+    private void start(@NotNull ThreadPoolTask<?> task) {
+        Thread thread = threadFactory.newThread(() -> {
+            try {
+                taskExecutor.accept(task);
+            } finally {
+                runningThreads.remove(Thread.currentThread());
+                permits.incrementAndGet();
+                startWaitingTasks();
+            }
+        });
+        runningThreads.add(thread);
+        thread.start();
+    }
+
+    private boolean acquirePermit() {
+        while (true) {
+            int current = permits.get();
+            if (current == 0) {
+                return false;
+            }
+            if (permits.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    @NotNull
+    private static ThreadFactory createThreadFactory() {
+        if (VIRTUAL_THREAD_FACTORY != null) {
+            return VIRTUAL_THREAD_FACTORY;
+        }
+        return runnable -> {
+            var thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Thread.ofVirtual().factory() is looked up reflectively since the project targets Java 11
+    @Nullable
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Object builder = ofVirtual.invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            return null;
+        }
+    }
+}
@@ -3,59 +3,532 @@ package ru.hse.anstkras.threadpool;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.Queue;
-import java.util.function.Function;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 /**
- * Represents a thread pool with fixed number of threads
+ * Represents a thread pool with fixed number of threads,
+ * an elastic pool that keeps between core and maximum number of threads,
+ * or a pool with a fixed limit of simultaneously running tasks in the thread per task mode
  */
 public class ThreadPool {
+    /** The maximum number of inline continuations that can be nested on a thread's stack */
+    static final int MAX_INLINE_CONTINUATION_DEPTH = 32;
+    /** The queue capacity of the pools that do not limit their queues */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+    private static final int[] PRIORITY_WEIGHTS =
+            Arrays.stream(Priority.values()).mapToInt(Priority::getWeight).toArray();
+    private static final ThreadLocal<int[]> inlineContinuationDepth = ThreadLocal.withInitial(() -> new int[1]);
     private final int threadsNumber;
-    private final @NotNull Queue<ThreadPoolTask> tasks = new ArrayDeque<>();
-    private final @NotNull Thread[] threads;
+    private final int coreThreadsNumber;
+    // idle threads above the core number stop after this time, Long.MAX_VALUE for fixed pools
+    private final long keepAliveNanos;
+    private final boolean isElastic;
+    private final @NotNull SchedulingMode schedulingMode;
+    private final @NotNull ContinuationPolicy continuationPolicy;
+    private final int queueCapacity;
+    private final @NotNull RejectionPolicy rejectionPolicy;
+    // the number of queued tasks, maintained for bounded queues only
+    private final @NotNull AtomicInteger queuedTasksNumber = new AtomicInteger();
+    private final @NotNull LongAdder rejectedTasksNumber = new LongAdder();
+    // submitters blocked by the BLOCK rejection policy wait on this monitor
+    private final @NotNull Object queueNotFull = new Object();
+    private volatile int blockedSubmittersNumber = 0;
+    private volatile @NotNull ThreadPoolListener[] listeners = new ThreadPoolListener[0];
+    private volatile @Nullable StatisticsCollector statisticsCollector;
+    // cancels tasks whose deadlines have passed, created on the first submission with a deadline
+    private volatile @Nullable ScheduledThreadPoolExecutor deadlineTimer;
+    private final @Nullable TaskQueue<ThreadPoolTask<?>> tasks;
+    private final @Nullable ThreadPerTaskRunner threadPerTaskRunner;
+    // running threads by their indices, a slot is reused by the threads started after its owner has stopped
+    private final @NotNull AtomicReferenceArray<LightThread> threads;
+    private final @NotNull AtomicInteger liveThreadsNumber = new AtomicInteger();
+    // serial queues of the keyed tasks, created on the first use of a stripe
+    private final @NotNull AtomicReferenceArray<SerialTaskQueue> serialQueues;
     private volatile boolean isShutDown = false;
 
     /**
      * Creates a thread pool with the given number of threads
+     * that share a single task queue
      *
      * @throws IllegalArgumentException in case of threadsNumber is negative
      */
     public ThreadPool(int threadsNumber) {
-        if (threadsNumber <= 0) {
+        this(threadsNumber, SchedulingMode.SHARED_QUEUE);
+    }
+
+    /**
+     * Creates a thread pool with the given number of threads
+     * that distribute tasks according to the given scheduling mode
+     *
+     * @throws IllegalArgumentException in case of threadsNumber is negative
+     */
+    public ThreadPool(int threadsNumber, @NotNull SchedulingMode schedulingMode) {
+        this(threadsNumber, schedulingMode, ContinuationPolicy.ENQUEUE);
+    }
+
+    /**
+     * Creates a thread pool with the given number of threads
+     * that distribute tasks according to the given scheduling mode
+     * and compute thenApply functions according to the given continuation policy
+     *
+     * @throws IllegalArgumentException in case of threadsNumber is negative
+     */
+    public ThreadPool(int threadsNumber,
+                      @NotNull SchedulingMode schedulingMode,
+                      @NotNull ContinuationPolicy continuationPolicy) {
+        this(threadsNumber, schedulingMode, continuationPolicy, UNBOUNDED, RejectionPolicy.ABORT);
+    }
+
+    /**
+     * Creates a thread pool with the given number of threads that share a single task queue
+     * which holds at most queueCapacity submitted tasks.
+     * Tasks submitted to the full queue are handled according to the given rejection policy
+     *
+     * @throws IllegalArgumentException in case of threadsNumber or queueCapacity is negative
+     */
+    public ThreadPool(int threadsNumber, int queueCapacity, @NotNull RejectionPolicy rejectionPolicy) {
+        this(threadsNumber, SchedulingMode.SHARED_QUEUE, ContinuationPolicy.ENQUEUE, queueCapacity, rejectionPolicy);
+    }
+
+    /**
+     * Creates a thread pool with the given number of threads
+     * that distribute tasks according to the given scheduling mode,
+     * compute thenApply functions according to the given continuation policy
+     * and queue at most queueCapacity submitted tasks.
+     * Tasks submitted to the full queue are handled according to the given rejection policy,
+     * continuations of completed tasks are always accepted
+     *
+     * @throws IllegalArgumentException in case of threadsNumber or queueCapacity is negative
+     */
+    public ThreadPool(int threadsNumber,
+                      @NotNull SchedulingMode schedulingMode,
+                      @NotNull ContinuationPolicy continuationPolicy,
+                      int queueCapacity,
+                      @NotNull RejectionPolicy rejectionPolicy) {
+        this(threadsNumber, threadsNumber, Long.MAX_VALUE, false,
+             schedulingMode, continuationPolicy, queueCapacity, rejectionPolicy);
+    }
+
+    /**
+     * Creates an elastic thread pool with a single shared task queue.
+     * Threads are started lazily: a new thread is started for a submitted task
+     * while there are less than coreThreadsNumber threads,
+     * or if all the threads are busy and there are less than maxThreadsNumber threads.
+     * Threads above the core number stop after staying idle for the keep-alive time
+     *
+     * @throws IllegalArgumentException in case of coreThreadsNumber is negative,
+     *                                  maxThreadsNumber is less than coreThreadsNumber or not positive,
+     *                                  or keepAliveTime is not positive
+     */
+    public ThreadPool(int coreThreadsNumber, int maxThreadsNumber, long keepAliveTime, @NotNull TimeUnit unit) {
+        this(coreThreadsNumber, maxThreadsNumber, keepAliveTime, unit, SchedulingMode.SHARED_QUEUE);
+    }
+
+    /**
+     * Creates an elastic thread pool that distributes tasks according to the given scheduling mode.
+     * Threads are started lazily: a new thread is started for a submitted task
+     * while there are less than coreThreadsNumber threads,
+     * or if all the threads are busy and there are less than maxThreadsNumber threads.
+     * Threads above the core number stop after staying idle for the keep-alive time
+     *
+     * @throws IllegalArgumentException in case of coreThreadsNumber is negative,
+     *                                  maxThreadsNumber is less than coreThreadsNumber or not positive,
+     *                                  keepAliveTime is not positive
+     *                                  or schedulingMode is THREAD_PER_TASK
+     */
+    public ThreadPool(int coreThreadsNumber,
+                      int maxThreadsNumber,
+                      long keepAliveTime,
+                      @NotNull TimeUnit unit,
+                      @NotNull SchedulingMode schedulingMode) {
+        this(coreThreadsNumber, maxThreadsNumber, unit.toNanos(keepAliveTime), true,
+             schedulingMode, ContinuationPolicy.ENQUEUE, UNBOUNDED, RejectionPolicy.ABORT);
+    }
+
+    private ThreadPool(int coreThreadsNumber,
+                       int maxThreadsNumber,
+                       long keepAliveNanos,
+                       boolean isElastic,
+                       @NotNull SchedulingMode schedulingMode,
+                       @NotNull ContinuationPolicy continuationPolicy,
+                       int queueCapacity,
+                       @NotNull RejectionPolicy rejectionPolicy) {
+        if (maxThreadsNumber <= 0) {
             throw new IllegalArgumentException("Threads number should be a positive integer");
         }
-        this.threadsNumber = threadsNumber;
-        threads = new Thread[threadsNumber];
-        for (int i = 0; i < threadsNumber; i++) {
-            threads[i] = new LightThread();
-            threads[i].start();
+        if (coreThreadsNumber < 0 || coreThreadsNumber > maxThreadsNumber) {
+            throw new IllegalArgumentException("Core threads number should be between 0 and the threads number");
         }
+        if (keepAliveNanos <= 0) {
+            throw new IllegalArgumentException("Keep-alive time should be positive");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity should be a positive integer");
+        }
+        if (isElastic && schedulingMode == SchedulingMode.THREAD_PER_TASK) {
+            throw new IllegalArgumentException("Thread per task mode already starts threads on demand");
+        }
+        this.threadsNumber = maxThreadsNumber;
+        this.coreThreadsNumber = coreThreadsNumber;
+        this.keepAliveNanos = keepAliveNanos;
+        this.isElastic = isElastic;
+        this.schedulingMode = schedulingMode;
+        this.continuationPolicy = continuationPolicy;
+        this.queueCapacity = queueCapacity;
+        this.rejectionPolicy = rejectionPolicy;
+        serialQueues = new AtomicReferenceArray<>(stripesNumber(maxThreadsNumber));
+        if (schedulingMode == SchedulingMode.THREAD_PER_TASK) {
+            tasks = null;
+            threadPerTaskRunner = new ThreadPerTaskRunner(threadsNumber, this::onTaskTaken, task -> runTask(task, -1));
+            threads = new AtomicReferenceArray<>(0);
+            return;
+        }
+
+        threadPerTaskRunner = null;
+        if (schedulingMode == SchedulingMode.WORK_STEALING) {
+            tasks = new WorkStealingTaskQueue<>(threadsNumber);
+        } else {
+            tasks = new SharedTaskQueue<>(PRIORITY_WEIGHTS, task -> task.getPriority().ordinal());
+        }
+        threads = new AtomicReferenceArray<>(threadsNumber);
+        if (!isElastic) {
+            for (int i = 0; i < threadsNumber; i++) {
+                startThread(threadsNumber);
+            }
+        }
+    }
+
+    /**
+     * Creates a thread pool that runs every task on a new virtual thread
+     * and computes at most maxConcurrency tasks simultaneously.
+     * Falls back to platform threads if the runtime does not support virtual threads
+     *
+     * @throws IllegalArgumentException in case of maxConcurrency is negative
+     */
+    @NotNull
+    public static ThreadPool newVirtualThreadPool(int maxConcurrency) {
+        return new ThreadPool(maxConcurrency, SchedulingMode.THREAD_PER_TASK);
+    }
+
+    /** Checks if the runtime provides virtual threads for the THREAD_PER_TASK scheduling mode */
+    public static boolean isVirtualThreadSupported() {
+        return ThreadPerTaskRunner.isVirtualThreadSupported();
     }
 
     /**
      * Adds the task to the thread pool to be computed and returns a LightFuture
-     * representation of the task's result
+     * representation of the task's result.
+     * If the queue is full the task is handled according to the rejection policy
      *
      * @param task to be computed
      * @param <R>  the type of the task's result
      * @return the representation of task's result
-     * @throws IllegalStateException if the thread pool is shut down
+     * @throws IllegalStateException      if the thread pool is shut down
+     * @throws RejectedExecutionException if the queue is full and the rejection policy is ABORT
      */
     @NotNull
     public <R> LightFuture<R> submit(@NotNull Supplier<R> task) {
+        return submit(task, Priority.NORMAL);
+    }
+
+    /**
+     * Adds the task with the given priority to the thread pool to be computed.
+     * Priorities change the order of queued tasks in the shared queue mode only,
+     * other modes take tasks in their usual order but still collect per-priority statistics.
+     * If the queue is full the task is handled according to the rejection policy
+     *
+     * @param task     to be computed
+     * @param priority of the task and its continuations
+     * @param <R>      the type of the task's result
+     * @return the representation of task's result
+     * @throws IllegalStateException      if the thread pool is shut down
+     * @throws RejectedExecutionException if the queue is full and the rejection policy is ABORT
+     */
+    @NotNull
+    public <R> LightFuture<R> submit(@NotNull Supplier<R> task, @NotNull Priority priority) {
         if (isShutDown) {
             throw new IllegalStateException("Thread pool is shut down");
         }
 
-        var threadPoolTask = new ThreadPoolTask<>(task);
-        addTaskToQueue(threadPoolTask);
+        var threadPoolTask = new ThreadPoolTask<>(this, task, ContinuationPolicy.ENQUEUE, priority);
+        if (!isBounded() || reserveQueueSlots(1)) {
+            enqueue(threadPoolTask);
+        } else {
+            reject(threadPoolTask);
+        }
         return threadPoolTask;
     }
 
+    /**
+     * Adds the task to the thread pool to be computed after all the previously submitted tasks
+     * with an equal key are completed. Tasks with different keys may be computed in parallel,
+     * though keys that fall into the same stripe of serial queues are ordered too.
+     * Only the tasks themselves are ordered, their continuations are not.
+     * If the queue is full the ABORT and DISCARD_OLDEST rejection policies work as usual,
+     * CALLER_RUNS waits for space in the queue like BLOCK since running the task right away could break the order
+     *
+     * @param key  of the task
+     * @param task to be computed
+     * @param <R>  the type of the task's result
+     * @return the representation of task's result
+     * @throws IllegalStateException      if the thread pool is shut down
+     * @throws RejectedExecutionException if the queue is full and the rejection policy is ABORT
+     */
+    @NotNull
+    public <R> LightFuture<R> submit(@NotNull Object key, @NotNull Supplier<R> task) {
+        if (isShutDown) {
+            throw new IllegalStateException("Thread pool is shut down");
+        }
+
+        var threadPoolTask = new ThreadPoolTask<>(this, task, ContinuationPolicy.ENQUEUE);
+        if (isBounded() && !reserveQueueSlots(1)) {
+            switch (rejectionPolicy) {
+                case BLOCK:
+                case CALLER_RUNS:
+                    waitForQueueSlot();
+                    break;
+                case DISCARD_OLDEST:
+                    discardOldestTask();
+                    break;
+                default:
+                    onTaskRejected(threadPoolTask);
+                    throw new RejectedExecutionException("Thread pool queue is full");
+            }
+        }
+        onTaskQueued(threadPoolTask);
+        getSerialQueue(key).add(threadPoolTask);
+        return threadPoolTask;
+    }
+
+    /**
+     * Adds the task to the thread pool to be computed before the given deadline.
+     * If the task is not completed in time it is cancelled, interrupting the computing thread,
+     * and its continuations are cancelled as well
+     *
+     * @param task    to be computed
+     * @param timeout the time the task has to be completed in
+     * @param unit    the unit of timeout
+     * @param <R>     the type of the task's result
+     * @return the representation of task's result
+     * @throws IllegalStateException      if the thread pool is shut down
+     * @throws RejectedExecutionException if the queue is full and the rejection policy is ABORT
+     */
+    @NotNull
+    public <R> LightFuture<R> submit(@NotNull Supplier<R> task, long timeout, @NotNull TimeUnit unit) {
+        LightFuture<R> future = submit(task);
+        ThreadPoolTask<R> threadPoolTask = ThreadPoolTask.asTask(future);
+        ScheduledFuture<?> deadline = getDeadlineTimer().schedule(
+                () -> threadPoolTask.cancel(true, "Task deadline exceeded"), timeout, unit);
+        threadPoolTask.whenComplete(() -> deadline.cancel(false));
+        return future;
+    }
+
+    /**
+     * Adds the task to the thread pool if there is space in the queue, never waits
+     *
+     * @return the representation of task's result or null if the queue is full
+     * @throws IllegalStateException if the thread pool is shut down
+     */
+    @Nullable
+    public <R> LightFuture<R> trySubmit(@NotNull Supplier<R> task) {
+        if (isShutDown) {
+            throw new IllegalStateException("Thread pool is shut down");
+        }
+
+        var threadPoolTask = new ThreadPoolTask<>(this, task, ContinuationPolicy.ENQUEUE);
+        if (isBounded() && !reserveQueueSlots(1)) {
+            onTaskRejected(threadPoolTask);
+            return null;
+        }
+        enqueue(threadPoolTask);
+        return threadPoolTask;
+    }
+
+    /**
+     * Adds all the tasks to the thread pool at once and returns LightFuture
+     * representations of their results in the same order.
+     * Cheaper than submitting the tasks one by one since the queue is accessed once.
+     * If the whole batch does not fit into the queue it is rejected as a whole with the ABORT rejection policy,
+     * otherwise the tasks are submitted one by one and handled according to the rejection policy.
+     * If a submission fails midway the already submitted tasks of the batch are cancelled
+     *
+     * @param tasks to be computed
+     * @param <R>   the type of the tasks' results
+     * @return the representations of tasks' results
+     * @throws IllegalStateException      if the thread pool is shut down
+     * @throws RejectedExecutionException if the whole batch does not fit into the queue
+     *                                    and the rejection policy is ABORT
+     */
+    @NotNull
+    public <R> List<LightFuture<R>> submitAll(@NotNull Collection<? extends Supplier<R>> tasks) {
+        if (isShutDown) {
+            throw new IllegalStateException("Thread pool is shut down");
+        }
+
+        if (isBounded() && !reserveQueueSlots(tasks.size())) {
+            if (rejectionPolicy == RejectionPolicy.ABORT) {
+                for (Supplier<R> task : tasks) {
+                    onTaskRejected(new ThreadPoolTask<>(this, task, ContinuationPolicy.ENQUEUE));
+                }
+                throw new RejectedExecutionException("Thread pool queue does not have space for the whole batch");
+            }
+            var futures = new ArrayList<LightFuture<R>>(tasks.size());
+            try {
+                for (Supplier<R> task : tasks) {
+                    futures.add(submit(task));
+                }
+            } catch (RuntimeException exception) {
+                for (LightFuture<R> future : futures) {
+                    future.cancel(false);
+                }
+                throw exception;
+            }
+            return Collections.unmodifiableList(futures);
+        }
+
+        var threadPoolTasks = new ArrayList<ThreadPoolTask<R>>(tasks.size());
+        for (Supplier<R> task : tasks) {
+            threadPoolTasks.add(new ThreadPoolTask<>(this, task, ContinuationPolicy.ENQUEUE));
+        }
+        for (ThreadPoolTask<R> threadPoolTask : threadPoolTasks) {
+            onTaskQueued(threadPoolTask);
+        }
+        if (threadPerTaskRunner != null) {
+            threadPerTaskRunner.addAll(threadPoolTasks);
+        } else {
+            int takenTasksNumber = this.tasks.addAll(threadPoolTasks, currentWorkerIndex());
+            onTasksAdded(threadPoolTasks.size() - takenTasksNumber);
+        }
+        return Collections.unmodifiableList(threadPoolTasks);
+    }
+
+    /**
+     * Submits all the tasks and waits until all of them are completed.
+     * Should not be called from the pool's own tasks since it may block all the threads
+     *
+     * @return the completed LightFuture representations of tasks' results in the same order
+     * @throws IllegalStateException if the thread pool is shut down
+     */
+    @NotNull
+    public <R> List<LightFuture<R>> invokeAll(@NotNull Collection<? extends Supplier<R>> tasks) {
+        List<LightFuture<R>> futures = submitAll(tasks);
+        for (LightFuture<R> future : futures) {
+            try {
+                future.get();
+            } catch (LightExecutionException ignored) {
+            }
+        }
+        return futures;
+    }
+
+    /**
+     * Submits all the tasks and waits until any of them is completed successfully,
+     * the other tasks are cancelled with interruption then.
+     * Should not be called from the pool's own tasks since it may block all the threads
+     *
+     * @return the result of the first successfully completed task
+     * @throws LightExecutionException  if all the tasks failed
+     * @throws IllegalArgumentException if there are no tasks
+     * @throws IllegalStateException    if the thread pool is shut down
+     */
+    @Nullable
+    public <R> R invokeAny(@NotNull Collection<? extends Supplier<R>> tasks) throws LightExecutionException {
+        if (tasks.isEmpty()) {
+            throw new IllegalArgumentException("There should be at least one task");
+        }
+
+        List<LightFuture<R>> futures = submitAll(tasks);
+        var result = new ThreadPoolTask<R>(this);
+        var remainingFailures = new AtomicInteger(futures.size());
+        for (LightFuture<R> future : futures) {
+            ThreadPoolTask.asTask(future).whenComplete(() -> {
+                try {
+                    result.complete(future.get());
+                } catch (LightExecutionException exception) {
+                    if (remainingFailures.decrementAndGet() == 0) {
+                        result.completeExceptionally(exception);
+                    }
+                }
+            });
+        }
+        try {
+            return result.get();
+        } finally {
+            // the tasks that lost the race should not occupy the threads anymore
+            for (LightFuture<R> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Constructs a LightFuture that is completed when all the given futures are completed.
+     * Its result is the list of the futures' results in the same order,
+     * if any of the futures fails than the combined future fails with its exception
+     *
+     * @throws IllegalArgumentException if there are no futures
+     *                                  or any of them is not created by a thread pool
+     */
+    @NotNull
+    public <R> LightFuture<List<R>> allOf(@NotNull List<? extends LightFuture<? extends R>> futures) {
+        if (futures.isEmpty()) {
+            throw new IllegalArgumentException("There should be at least one future");
+        }
+
+        var combined = new ThreadPoolTask<List<R>>(this);
+        var remaining = new AtomicInteger(futures.size());
+        for (LightFuture<? extends R> future : futures) {
+            ThreadPoolTask.asTask(future).whenComplete(() -> {
+                if (remaining.decrementAndGet() != 0) {
+                    return;
+                }
+                var results = new ArrayList<R>(futures.size());
+                try {
+                    for (LightFuture<? extends R> completedFuture : futures) {
+                        results.add(completedFuture.get());
+                    }
+                    combined.complete(results);
+                } catch (LightExecutionException exception) {
+                    combined.completeExceptionally(exception);
+                }
+            });
+        }
+        return combined;
+    }
+
+    /**
+     * Constructs a LightFuture that is completed when any of the given futures is completed,
+     * with the same result or exception
+     *
+     * @throws IllegalArgumentException if there are no futures
+     *                                  or any of them is not created by a thread pool
+     */
+    @NotNull
+    public <R> LightFuture<R> anyOf(@NotNull List<? extends LightFuture<? extends R>> futures) {
+        if (futures.isEmpty()) {
+            throw new IllegalArgumentException("There should be at least one future");
+        }
+
+        var first = new ThreadPoolTask<R>(this);
+        for (LightFuture<? extends R> future : futures) {
+            ThreadPoolTask<? extends R> task = ThreadPoolTask.asTask(future);
+            task.whenComplete(() -> first.completeFrom(task));
+        }
+        return first;
+    }
+
     /** Stops the thread pool's threads */
     public void shutdown() {
         try {
@@ -63,131 +536,507 @@ public class ThreadPool {
                 return;
             }
             isShutDown = true;
-            for (Thread thread : threads) {
-                thread.interrupt();
+            synchronized (queueNotFull) {
+                queueNotFull.notifyAll();
+            }
+            ScheduledThreadPoolExecutor timer = deadlineTimer;
+            if (timer != null) {
+                timer.shutdownNow();
             }
-            for (Thread thread : threads) {
-                thread.join();
+            if (threadPerTaskRunner != null) {
+                threadPerTaskRunner.shutdown();
+            }
+            for (int i = 0; i < threads.length(); i++) {
+                Thread thread = threads.get(i);
+                if (thread != null) {
+                    thread.interrupt();
+                }
+            }
+            for (int i = 0; i < threads.length(); i++) {
+                Thread thread = threads.get(i);
+                if (thread != null) {
+                    thread.join();
+                }
             }
         } catch (InterruptedException ignored) {
 
         }
     }
 
-    /** Returns the threads number in the thread pool */
+    /** Returns the threads number in the thread pool, the maximum threads number for elastic pools */
     public int getThreadsNumber() {
         return threadsNumber;
     }
 
+    /** Returns the number of threads an elastic pool keeps when idle, the threads number for other pools */
+    public int getCoreThreadsNumber() {
+        return coreThreadsNumber;
+    }
+
+    /** Returns the time after which an idle thread above the core number stops */
+    public long getKeepAliveTime(@NotNull TimeUnit unit) {
+        return unit.convert(keepAliveNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Checks if the pool starts and stops its threads depending on the load */
+    public boolean isElastic() {
+        return isElastic;
+    }
+
+    /** Returns the number of currently running threads, 0 in the thread per task mode */
+    public int getLiveThreadsNumber() {
+        return liveThreadsNumber.get();
+    }
+
+    /**
+     * Starts all the core threads of an elastic pool instead of waiting for submitted tasks
+     *
+     * @return the number of started threads
+     */
+    public int prestartCoreThreads() {
+        int startedThreadsNumber = 0;
+        while (startThread(coreThreadsNumber)) {
+            startedThreadsNumber++;
+        }
+        return startedThreadsNumber;
+    }
+
     /** Checks if the thread pool is shut down */
     public boolean isShutDown() {
         return isShutDown;
     }
 
-    private <R> void addTaskToQueue(@NotNull ThreadPoolTask<R> task) {
-        synchronized (tasks) {
-            tasks.add(task);
-            tasks.notify();
+    /** Returns the way the thread pool distributes tasks between its threads */
+    @NotNull
+    public SchedulingMode getSchedulingMode() {
+        return schedulingMode;
+    }
+
+    /** Returns the policy used by thenApply calls that do not specify one */
+    @NotNull
+    public ContinuationPolicy getContinuationPolicy() {
+        return continuationPolicy;
+    }
+
+    /** Returns the maximum number of submitted tasks in the queue or UNBOUNDED */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /** Returns the way tasks submitted to the full queue are handled */
+    @NotNull
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    /** Returns the number of tasks waiting in the queue */
+    public int getQueueSize() {
+        if (threadPerTaskRunner != null) {
+            return threadPerTaskRunner.waitingTasksNumber();
         }
+        return tasks.size();
+    }
+
+    /**
+     * Returns the number of tasks that did not fit into the queue:
+     * discarded, computed by the caller, rejected or not accepted by trySubmit
+     */
+    public long getRejectedTasksNumber() {
+        return rejectedTasksNumber.sum();
     }
 
-    private class ThreadPoolTask<R> implements LightFuture<R> {
-        private final @NotNull Supplier<R> supplier;
-        private final @NotNull List<ThreadPoolTask<?>> children = new ArrayList<>();
-        private final Object lock = new Object();
-        private @Nullable R result;
-        private volatile boolean isReady = false;
-        private volatile LightExecutionException exception;
+    /**
+     * Registers the listener to be notified about the pool's tasks.
+     * Time is measured only while at least one listener is registered
+     */
+    public synchronized void addListener(@NotNull ThreadPoolListener listener) {
+        ThreadPoolListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        newListeners[listeners.length] = listener;
+        listeners = newListeners;
+    }
 
-        private ThreadPoolTask(@NotNull Supplier<R> supplier) {
-            this.supplier = supplier;
+    /** Unregisters the listener, does nothing if the listener is not registered */
+    public synchronized void removeListener(@NotNull ThreadPoolListener listener) {
+        List<ThreadPoolListener> newListeners = new ArrayList<>(Arrays.asList(listeners));
+        newListeners.remove(listener);
+        listeners = newListeners.toArray(new ThreadPoolListener[0]);
+    }
+
+    /**
+     * Starts or stops collecting the statistics returned by getStats.
+     * Enabling resets the previously collected statistics
+     */
+    public synchronized void setStatisticsEnabled(boolean isEnabled) {
+        StatisticsCollector collector = statisticsCollector;
+        if (collector != null) {
+            removeListener(collector);
+            statisticsCollector = null;
         }
+        if (isEnabled) {
+            collector = new StatisticsCollector(threadPerTaskRunner == null ? threadsNumber : 0);
+            addListener(collector);
+            statisticsCollector = collector;
+        }
+    }
 
-        @Override
-        public boolean isReady() {
-            return isReady;
+    /** Checks if the pool collects the statistics returned by getStats */
+    public boolean isStatisticsEnabled() {
+        return statisticsCollector != null;
+    }
+
+    /**
+     * Returns the snapshot of the pool's statistics.
+     * Task counters, time histograms and utilization are empty unless the statistics are enabled
+     */
+    @NotNull
+    public ThreadPoolStats getStats() {
+        StatisticsCollector collector = statisticsCollector;
+        if (collector == null) {
+            collector = new StatisticsCollector(0);
         }
+        return new ThreadPoolStats(collector.getQueuedTasksNumber(),
+                collector.getFinishedTasksNumber(),
+                getRejectedTasksNumber(),
+                getQueueSize(),
+                collector.getWaitTimes(),
+                collector.getWaitTimesByPriority(),
+                collector.getExecutionTimes(),
+                collector.getUtilization(),
+                getContentionStatistics());
+    }
 
-        @Override
-        @Nullable
-        public R get() throws LightExecutionException {
-            if (!isReady) {
-                synchronized (lock) {
-                    while (!isReady) {
-                        try {
-                            lock.wait();
-                        } catch (InterruptedException ignored) {
-                        }
+    /** Returns the current values of the task queue contention counters */
+    @NotNull
+    public ContentionStatistics getContentionStatistics() {
+        if (tasks == null) {
+            return new ContentionStatistics(0, 0, 0, 0);
+        }
+        return tasks.getContentionStatistics();
+    }
+
+    // adds a continuation to the queue, continuations are not limited by the queue capacity
+    <R> void addTaskToQueue(@NotNull ThreadPoolTask<R> task) {
+        if (isBounded()) {
+            queuedTasksNumber.incrementAndGet();
+        }
+        enqueue(task);
+    }
+
+    private void enqueue(@NotNull ThreadPoolTask<?> task) {
+        onTaskQueued(task);
+        addToQueue(task);
+    }
+
+    // adds the task the listeners have already been notified about
+    private void addToQueue(@NotNull ThreadPoolTask<?> task) {
+        if (threadPerTaskRunner != null) {
+            threadPerTaskRunner.add(task);
+        } else if (!tasks.add(task, currentWorkerIndex())) {
+            onTasksAdded(1);
+        }
+    }
+
+    @NotNull
+    private SerialTaskQueue getSerialQueue(@NotNull Object key) {
+        int hash = key.hashCode();
+        int index = (hash ^ (hash >>> 16)) & (serialQueues.length() - 1);
+        SerialTaskQueue serialQueue = serialQueues.get(index);
+        if (serialQueue == null) {
+            serialQueues.compareAndSet(index, null, new SerialTaskQueue(this::addToQueue, this::onTaskTaken));
+            serialQueue = serialQueues.get(index);
+        }
+        return serialQueue;
+    }
+
+    // the power of two number of serial queue stripes, large enough to make collisions of busy keys rare
+    private static int stripesNumber(int threadsNumber) {
+        int minStripesNumber = Math.max(16, Math.min(threadsNumber, 1 << 12) * 4);
+        return Integer.highestOneBit(minStripesNumber - 1) << 1;
+    }
+
+    // starts threads of an elastic pool for the added tasks no idle thread was woken up for
+    private void onTasksAdded(int notTakenTasksNumber) {
+        if (!isElastic) {
+            return;
+        }
+        for (int i = 0; i < notTakenTasksNumber; i++) {
+            if (!startThread(coreThreadsNumber) && !startThread(threadsNumber)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Starts a new thread if there are less than limit running threads
+     *
+     * @return true if the thread was started
+     */
+    private boolean startThread(int limit) {
+        int live;
+        do {
+            live = liveThreadsNumber.get();
+            if (live >= limit || isShutDown) {
+                return false;
+            }
+        } while (!liveThreadsNumber.compareAndSet(live, live + 1));
+
+        // a thread that has just stopped may not have freed its slot yet
+        while (true) {
+            for (int i = 0; i < threads.length(); i++) {
+                if (threads.get(i) == null) {
+                    LightThread thread = new LightThread(i);
+                    if (threads.compareAndSet(i, null, thread)) {
+                        thread.start();
+                        return true;
                     }
                 }
             }
-            if (exception != null) {
-                throw exception;
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Stops the idle thread if the elastic pool has more than core threads running
+     *
+     * @return true if the thread should stop
+     */
+    private boolean tryStopThread(int index) {
+        int live;
+        do {
+            live = liveThreadsNumber.get();
+            if (live <= coreThreadsNumber) {
+                return false;
             }
-            return result;
+        } while (!liveThreadsNumber.compareAndSet(live, live - 1));
+        threads.set(index, null);
+        // a task may have been added after the thread had given up waiting
+        if (tasks.size() > 0) {
+            onTasksAdded(1);
         }
+        return true;
+    }
 
-        @Override
-        @NotNull
-        public <T> LightFuture<T> thenApply(@NotNull Function<? super R, T> function) {
-            if (isShutDown) {
-                throw new IllegalStateException("Thread pool is shut down");
+    // computes the task taken from the queue and notifies the listeners
+    private void runTask(@NotNull ThreadPoolTask<?> task, int workerIndex) {
+        ThreadPoolListener[] currentListeners = listeners;
+        if (currentListeners.length == 0) {
+            task.execute();
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        long waitTime = task.getQueuedTime() == 0 ? 0 : startTime - task.getQueuedTime();
+        for (ThreadPoolListener listener : currentListeners) {
+            listener.onTaskStarted(task, workerIndex, waitTime);
+        }
+        try {
+            task.execute();
+        } finally {
+            long executionTime = System.nanoTime() - startTime;
+            for (ThreadPoolListener listener : currentListeners) {
+                listener.onTaskFinished(task, workerIndex, executionTime);
             }
+        }
+    }
 
-            var task = new ThreadPoolTask<>(() -> {
-                try {
-                    return function.apply(get());
-                } catch (LightExecutionException exception) {
-                    throw new RuntimeException(exception);
-                }
-            });
+    private void onTaskQueued(@NotNull ThreadPoolTask<?> task) {
+        ThreadPoolListener[] currentListeners = listeners;
+        if (currentListeners.length == 0) {
+            return;
+        }
+        task.setQueuedTime(System.nanoTime());
+        for (ThreadPoolListener listener : currentListeners) {
+            listener.onTaskQueued(task);
+        }
+    }
 
-            if (isReady) {
-                addTaskToQueue(task);
-            } else {
-                synchronized (lock) {
-                    children.add(task);
-                }
+    private void onTaskRejected(@NotNull ThreadPoolTask<?> task) {
+        rejectedTasksNumber.increment();
+        for (ThreadPoolListener listener : listeners) {
+            listener.onTaskRejected(task);
+        }
+    }
+
+    // releases the queue slot of a task taken by a thread and wakes up blocked submitters
+    private void onTaskTaken() {
+        if (!isBounded()) {
+            return;
+        }
+        queuedTasksNumber.decrementAndGet();
+        if (blockedSubmittersNumber > 0) {
+            synchronized (queueNotFull) {
+                queueNotFull.notifyAll();
+            }
+        }
+    }
+
+    @NotNull
+    private ScheduledThreadPoolExecutor getDeadlineTimer() {
+        ScheduledThreadPoolExecutor timer = deadlineTimer;
+        if (timer != null) {
+            return timer;
+        }
+        synchronized (queueNotFull) {
+            if (deadlineTimer == null) {
+                timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+                    var thread = new Thread(runnable, "ThreadPool deadline timer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                timer.setRemoveOnCancelPolicy(true);
+                deadlineTimer = timer;
             }
-            return task;
+            return deadlineTimer;
         }
+    }
 
-        // compute the task's result
-        private void execute() {
-            try {
-                result = supplier.get();
-            } catch (Exception exception) {
-                this.exception = new LightExecutionException(exception);
+    private boolean isBounded() {
+        return queueCapacity != UNBOUNDED;
+    }
+
+    private boolean reserveQueueSlots(int slotsNumber) {
+        while (true) {
+            int current = queuedTasksNumber.get();
+            if (current > queueCapacity - slotsNumber) {
+                return false;
+            }
+            if (queuedTasksNumber.compareAndSet(current, current + slotsNumber)) {
+                return true;
             }
+        }
+    }
+
+    // handles the task that does not fit into the full queue
+    private void reject(@NotNull ThreadPoolTask<?> task) {
+        if (rejectionPolicy == RejectionPolicy.BLOCK) {
+            waitForQueueSlot();
+            enqueue(task);
+            return;
+        }
 
-            isReady = true;
-            synchronized (lock) {
-                lock.notifyAll();
-                for (var child : children) {
-                    addTaskToQueue(child);
+        switch (rejectionPolicy) {
+            case CALLER_RUNS:
+                onTaskRejected(task);
+                task.execute();
+                break;
+            case DISCARD_OLDEST:
+                discardOldestTask();
+                enqueue(task);
+                break;
+            default:
+                onTaskRejected(task);
+                throw new RejectedExecutionException("Thread pool queue is full");
+        }
+    }
+
+    private void waitForQueueSlot() {
+        synchronized (queueNotFull) {
+            blockedSubmittersNumber++;
+            try {
+                while (!reserveQueueSlots(1)) {
+                    if (isShutDown) {
+                        throw new IllegalStateException("Thread pool is shut down");
+                    }
+                    queueNotFull.wait();
                 }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for space in the queue");
+            } finally {
+                blockedSubmittersNumber--;
             }
         }
     }
 
+    // removes the oldest task from the queue and passes its slot to the caller
+    private void discardOldestTask() {
+        while (true) {
+            ThreadPoolTask<?> oldest = threadPerTaskRunner != null ? threadPerTaskRunner.pollOldest() : tasks.pollOldest();
+            if (oldest != null) {
+                onTaskRejected(oldest);
+                oldest.completeExceptionally(new LightExecutionException(
+                        new RejectedExecutionException("Task was discarded from the full queue")));
+                return;
+            }
+            if (reserveQueueSlots(1)) {
+                return;
+            }
+        }
+    }
+
+    // removes the cancelled task from the queue eagerly so that it does not occupy a thread later
+    void removeFromQueue(@NotNull ThreadPoolTask<?> task) {
+        boolean isRemoved = threadPerTaskRunner != null ? threadPerTaskRunner.remove(task) : tasks.remove(task);
+        if (isRemoved) {
+            onTaskTaken();
+        }
+    }
+
+    // computes the continuation inline if its policy allows it and the stack is not too deep
+    <R> void runContinuation(@NotNull ThreadPoolTask<R> task) {
+        if (task.isReady()) {
+            // cancelled before its parent was completed
+            return;
+        }
+        int[] depth = inlineContinuationDepth.get();
+        if (task.getContinuationPolicy() != ContinuationPolicy.INLINE || depth[0] >= MAX_INLINE_CONTINUATION_DEPTH) {
+            addTaskToQueue(task);
+            return;
+        }
+
+        depth[0]++;
+        try {
+            task.execute();
+        } finally {
+            depth[0]--;
+        }
+    }
+
+    // returns the index of the current thread in the pool or -1 if it does not belong to the pool
+    private int currentWorkerIndex() {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof LightThread && ((LightThread) thread).getThreadPool() == this) {
+            return ((LightThread) thread).index;
+        }
+        return -1;
+    }
+
     private class LightThread extends Thread {
+        private final int index;
+
+        private LightThread(int index) {
+            this.index = index;
+        }
+
+        @NotNull
+        private ThreadPool getThreadPool() {
+            return ThreadPool.this;
+        }
+
         @Override
         public void run() {
             ThreadPoolTask<?> task;
             while (!isInterrupted() && !isShutDown) {
-                synchronized (tasks) {
-                    while (tasks.isEmpty()) {
-                        try {
-                            tasks.wait();
-                        } catch (InterruptedException exception) {
-                            if (isShutDown) {
-                                return;
-                            }
-                        }
+                try {
+                    if (isElastic && liveThreadsNumber.get() > coreThreadsNumber) {
+                        task = tasks.poll(index, keepAliveNanos);
+                    } else {
+                        task = tasks.take(index);
+                    }
+                } catch (InterruptedException exception) {
+                    if (isShutDown) {
+                        return;
                     }
-                    task = tasks.remove();
+                    continue;
                 }
-                task.execute();
+                if (task == null) {
+                    if (tryStopThread(index)) {
+                        return;
+                    }
+                    continue;
+                }
+                onTaskTaken();
+                runTask(task, index);
             }
         }
     }
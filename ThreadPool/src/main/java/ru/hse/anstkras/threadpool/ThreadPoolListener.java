@@ -0,0 +1,37 @@
+package ru.hse.anstkras.threadpool;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives notifications about the tasks of a thread pool.
+ * Methods are called by the threads that queue and compute tasks, so they should be fast
+ * and should not throw exceptions. When no listener is registered the pool does not
+ * measure time at all.
+ */
+public interface ThreadPoolListener {
+    /** Called when the task is added to the queue */
+    default void onTaskQueued(@NotNull LightFuture<?> task) {
+    }
+
+    /**
+     * Called by the thread that is about to compute the task
+     *
+     * @param workerIndex   index of the pool thread or -1 if the task runs on a thread per task
+     * @param waitTimeNanos the time the task spent in the queue
+     */
+    default void onTaskStarted(@NotNull LightFuture<?> task, int workerIndex, long waitTimeNanos) {
+    }
+
+    /**
+     * Called by the thread that has computed the task
+     *
+     * @param workerIndex        index of the pool thread or -1 if the task runs on a thread per task
+     * @param executionTimeNanos the time the computation took
+     */
+    default void onTaskFinished(@NotNull LightFuture<?> task, int workerIndex, long executionTimeNanos) {
+    }
+
+    /** Called when the task does not fit into the full queue */
+    default void onTaskRejected(@NotNull LightFuture<?> task) {
+    }
+}
@@ -0,0 +1,100 @@
+package ru.hse.anstkras.threadpool;
+
+import org.jetbrains.annotations.NotNull;
+
+/** Snapshot of the thread pool's runtime statistics */
+public class ThreadPoolStats {
+    private final long queuedTasksNumber;
+    private final long finishedTasksNumber;
+    private final long rejectedTasksNumber;
+    private final int queueSize;
+    private final @NotNull LatencyHistogram waitTimes;
+    private final @NotNull LatencyHistogram[] waitTimesByPriority;
+    private final @NotNull LatencyHistogram executionTimes;
+    private final @NotNull double[] utilization;
+    private final @NotNull ContentionStatistics contentionStatistics;
+
+    ThreadPoolStats(long queuedTasksNumber,
+                    long finishedTasksNumber,
+                    long rejectedTasksNumber,
+                    int queueSize,
+                    @NotNull LatencyHistogram waitTimes,
+                    @NotNull LatencyHistogram[] waitTimesByPriority,
+                    @NotNull LatencyHistogram executionTimes,
+                    @NotNull double[] utilization,
+                    @NotNull ContentionStatistics contentionStatistics) {
+        this.queuedTasksNumber = queuedTasksNumber;
+        this.finishedTasksNumber = finishedTasksNumber;
+        this.rejectedTasksNumber = rejectedTasksNumber;
+        this.queueSize = queueSize;
+        this.waitTimes = waitTimes;
+        this.waitTimesByPriority = waitTimesByPriority;
+        this.executionTimes = executionTimes;
+        this.utilization = utilization;
+        this.contentionStatistics = contentionStatistics;
+    }
+
+    /** Returns the number of tasks added to the queue since the statistics were enabled */
+    public long getQueuedTasksNumber() {
+        return queuedTasksNumber;
+    }
+
+    /** Returns the number of queued tasks computed since the statistics were enabled */
+    public long getFinishedTasksNumber() {
+        return finishedTasksNumber;
+    }
+
+    /** Returns the number of tasks that did not fit into the queue */
+    public long getRejectedTasksNumber() {
+        return rejectedTasksNumber;
+    }
+
+    /** Returns the number of tasks waiting in the queue */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /** Returns the distribution of times in nanoseconds between queueing and starting of tasks */
+    @NotNull
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    /** Returns the distribution of wait times in nanoseconds of the tasks with the given priority */
+    @NotNull
+    public LatencyHistogram getWaitTimes(@NotNull Priority priority) {
+        return waitTimesByPriority[priority.ordinal()];
+    }
+
+    /** Returns the distribution of times in nanoseconds between starting and finishing of tasks */
+    @NotNull
+    public LatencyHistogram getExecutionTimes() {
+        return executionTimes;
+    }
+
+    /**
+     * Returns the share of time every thread of the pool spent computing tasks
+     * since the statistics were enabled, empty in the thread per task mode
+     */
+    @NotNull
+    public double[] getUtilization() {
+        return utilization.clone();
+    }
+
+    /** Returns the steal, park and lock contention counters */
+    @NotNull
+    public ContentionStatistics getContentionStatistics() {
+        return contentionStatistics;
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadPoolStats{queuedTasksNumber=" + queuedTasksNumber
+                + ", finishedTasksNumber=" + finishedTasksNumber
+                + ", rejectedTasksNumber=" + rejectedTasksNumber
+                + ", queueSize=" + queueSize
+                + ", waitTimes=" + waitTimes
+                + ", executionTimes=" + executionTimes
+                + ", contentionStatistics=" + contentionStatistics + "}";
+    }
+}
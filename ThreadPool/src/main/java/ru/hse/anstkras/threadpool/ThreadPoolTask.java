@@ -0,0 +1,583 @@
+package ru.hse.anstkras.threadpool;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A task of the thread pool and the LightFuture representation of its result.
+ * The task moves from PENDING to COMPLETING (or INTERRUPTING if it is cancelled with interruption)
+ * by a single CAS, the winner publishes the outcome and moves to DONE, FAILED,
+ * CANCELLED or INTERRUPTED (cancelled after interrupting the running thread).
+ * Waiting threads and continuations are kept in a lock-free stack
+ * which is closed and drained once the task is completed.
+ * Waiters that stop waiting because of a timeout or an interrupt unlink themselves from the stack.
+ * Continuations of a cancelled task are cancelled as well.
+ */
+class ThreadPoolTask<R> implements LightFuture<R> {
+    private static final int PENDING = 0;
+    private static final int COMPLETING = 1;
+    private static final int INTERRUPTING = 2;
+    private static final int DONE = 3;
+    private static final int FAILED = 4;
+    private static final int CANCELLED = 5;
+    private static final int INTERRUPTED = 6;
+    private static final AtomicIntegerFieldUpdater<ThreadPoolTask> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(ThreadPoolTask.class, "state");
+    private static final AtomicReferenceFieldUpdater<ThreadPoolTask, Completion> STACK =
+            AtomicReferenceFieldUpdater.newUpdater(ThreadPoolTask.class, Completion.class, "stack");
+    // marks the stack of a completed task, nothing can be pushed to it
+    private static final Completion CLOSED = new Waiter(null);
+    // descendants waiting to be cancelled by the outermost cancel call of the current thread
+    private static final ThreadLocal<Queue<ThreadPoolTask<?>>> pendingCancellations = new ThreadLocal<>();
+
+    private final @NotNull ThreadPool threadPool;
+    private final @NotNull ContinuationPolicy continuationPolicy;
+    private final @NotNull Priority priority;
+    private @Nullable Supplier<R> supplier;
+    // the result or the LightExecutionException, published by the write to state
+    private @Nullable Object outcome;
+    private volatile int state = PENDING;
+    private volatile @Nullable Completion stack;
+    // the thread computing the task, used to interrupt it on cancellation
+    private volatile @Nullable Thread runner;
+    // System.nanoTime() of the moment the task was queued, set only if the pool has listeners
+    private long queuedTime;
+
+    ThreadPoolTask(@NotNull ThreadPool threadPool,
+                   @NotNull Supplier<R> supplier,
+                   @NotNull ContinuationPolicy continuationPolicy) {
+        this(threadPool, supplier, continuationPolicy, Priority.NORMAL);
+    }
+
+    ThreadPoolTask(@NotNull ThreadPool threadPool,
+                   @NotNull Supplier<R> supplier,
+                   @NotNull ContinuationPolicy continuationPolicy,
+                   @NotNull Priority priority) {
+        this.threadPool = threadPool;
+        this.supplier = supplier;
+        this.continuationPolicy = continuationPolicy;
+        this.priority = priority;
+    }
+
+    /** Creates a task without a supplier that can only be completed by the complete methods */
+    ThreadPoolTask(@NotNull ThreadPool threadPool) {
+        this.threadPool = threadPool;
+        this.continuationPolicy = ContinuationPolicy.ENQUEUE;
+        this.priority = Priority.NORMAL;
+    }
+
+    @Override
+    public boolean isReady() {
+        return state >= DONE;
+    }
+
+    @Override
+    public boolean isCompletedExceptionally() {
+        return state >= FAILED;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return state >= CANCELLED;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return cancel(mayInterruptIfRunning, "Task was cancelled");
+    }
+
+    /**
+     * Cancels the task with the given message if it has not been completed yet
+     *
+     * @return true if this call cancelled the task
+     */
+    boolean cancel(boolean mayInterruptIfRunning, @NotNull String message) {
+        if (!STATE.compareAndSet(this, PENDING, mayInterruptIfRunning ? INTERRUPTING : COMPLETING)) {
+            return false;
+        }
+        outcome = new LightExecutionException(new CancellationException(message));
+        supplier = null;
+        if (mayInterruptIfRunning) {
+            Thread runningThread = runner;
+            if (runningThread != null) {
+                runningThread.interrupt();
+            }
+        }
+        state = mayInterruptIfRunning ? INTERRUPTED : CANCELLED;
+        threadPool.removeFromQueue(this);
+        runCompletions(true);
+        return true;
+    }
+
+    /**
+     * If computation is completed than returns result
+     * otherwise waits until computation is completed.
+     * Interruption does not stop waiting, the interrupt status is restored before returning
+     */
+    @Override
+    @Nullable
+    public R get() throws LightExecutionException {
+        if (!isReady()) {
+            var waiter = new Waiter(Thread.currentThread());
+            boolean isInterrupted = false;
+            if (push(waiter)) {
+                while (!isReady()) {
+                    LockSupport.park(this);
+                    if (Thread.interrupted()) {
+                        isInterrupted = true;
+                    }
+                }
+            }
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return outcome();
+    }
+
+    @Override
+    @Nullable
+    public R get(long timeout, @NotNull TimeUnit unit)
+            throws InterruptedException, TimeoutException, LightExecutionException {
+        if (!isReady()) {
+            var waiter = new Waiter(Thread.currentThread());
+            if (push(waiter)) {
+                long deadline = System.nanoTime() + unit.toNanos(timeout);
+                while (!isReady()) {
+                    if (Thread.interrupted()) {
+                        removeWaiter(waiter);
+                        throw new InterruptedException();
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        removeWaiter(waiter);
+                        throw new TimeoutException();
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                }
+            }
+        }
+        return outcome();
+    }
+
+    @Override
+    @NotNull
+    public <T> LightFuture<T> thenApply(@NotNull Function<? super R, T> function) {
+        return thenApply(function, threadPool.getContinuationPolicy());
+    }
+
+    @Override
+    @NotNull
+    public <T> LightFuture<T> thenApply(@NotNull Function<? super R, T> function,
+                                        @NotNull ContinuationPolicy policy) {
+        return then(() -> {
+            try {
+                return function.apply(get());
+            } catch (LightExecutionException exception) {
+                throw new RuntimeException(exception);
+            }
+        }, policy);
+    }
+
+    @Override
+    @NotNull
+    public <T> LightFuture<T> thenCompose(@NotNull Function<? super R, ? extends LightFuture<T>> function) {
+        var result = new ThreadPoolTask<T>(threadPool);
+        ThreadPoolTask<? extends LightFuture<T>> step = asTask(thenApply(function));
+        step.whenComplete(() -> {
+            LightFuture<T> inner;
+            try {
+                inner = step.get();
+            } catch (LightExecutionException exception) {
+                result.completeExceptionally(exception);
+                return;
+            }
+            if (!(inner instanceof ThreadPoolTask)) {
+                result.completeExceptionally(new LightExecutionException(new IllegalArgumentException(
+                        "thenCompose function should return a future created by a thread pool")));
+                return;
+            }
+            var innerTask = (ThreadPoolTask<T>) inner;
+            innerTask.whenComplete(() -> result.completeFrom(innerTask));
+        });
+        return result;
+    }
+
+    @Override
+    @NotNull
+    public <U, T> LightFuture<T> thenCombine(@NotNull LightFuture<U> other,
+                                             @NotNull BiFunction<? super R, ? super U, T> function) {
+        checkNotShutDown();
+        ThreadPoolTask<U> otherTask = asTask(other);
+        var task = new ThreadPoolTask<>(threadPool, () -> {
+            try {
+                return function.apply(get(), otherTask.get());
+            } catch (LightExecutionException exception) {
+                throw new RuntimeException(exception);
+            }
+        }, threadPool.getContinuationPolicy(), priority);
+
+        var remaining = new AtomicInteger(2);
+        Runnable onComplete = () -> {
+            if (remaining.decrementAndGet() == 0) {
+                threadPool.runContinuation(task);
+            }
+        };
+        whenComplete(onComplete);
+        otherTask.whenComplete(onComplete);
+        return task;
+    }
+
+    @Override
+    @NotNull
+    public <T> LightFuture<T> handle(@NotNull BiFunction<? super R, LightExecutionException, T> function) {
+        return then(() -> {
+            try {
+                return function.apply(get(), null);
+            } catch (LightExecutionException exception) {
+                return function.apply(null, exception);
+            }
+        }, threadPool.getContinuationPolicy());
+    }
+
+    @Override
+    @NotNull
+    public LightFuture<R> exceptionally(@NotNull Function<LightExecutionException, ? extends R> function) {
+        return then(() -> {
+            try {
+                return get();
+            } catch (LightExecutionException exception) {
+                return function.apply(exception);
+            }
+        }, threadPool.getContinuationPolicy());
+    }
+
+    /**
+     * Returns the given future as a ThreadPoolTask
+     *
+     * @throws IllegalArgumentException if the future is not created by a thread pool
+     */
+    @NotNull
+    static <V> ThreadPoolTask<V> asTask(@NotNull LightFuture<V> future) {
+        if (!(future instanceof ThreadPoolTask)) {
+            throw new IllegalArgumentException("Only futures created by a thread pool are supported");
+        }
+        return (ThreadPoolTask<V>) future;
+    }
+
+    @NotNull
+    ThreadPool getThreadPool() {
+        return threadPool;
+    }
+
+    long getQueuedTime() {
+        return queuedTime;
+    }
+
+    void setQueuedTime(long queuedTime) {
+        this.queuedTime = queuedTime;
+    }
+
+    @NotNull
+    ContinuationPolicy getContinuationPolicy() {
+        return continuationPolicy;
+    }
+
+    @NotNull
+    Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Completes the task with the given result if it has not been completed yet
+     *
+     * @return true if this call completed the task
+     */
+    boolean complete(@Nullable R result) {
+        return complete(result, DONE);
+    }
+
+    /**
+     * Completes the task with the given exception if it has not been completed yet
+     *
+     * @return true if this call completed the task
+     */
+    boolean completeExceptionally(@NotNull LightExecutionException exception) {
+        return complete(exception, FAILED);
+    }
+
+    /** Completes the task with the outcome of the given completed task */
+    void completeFrom(@NotNull ThreadPoolTask<? extends R> source) {
+        try {
+            complete(source.get());
+        } catch (LightExecutionException exception) {
+            completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * Runs the action once the task is completed, right away if it is completed already.
+     * The action is run by the thread that completes the task and should be short
+     */
+    void whenComplete(@NotNull Runnable action) {
+        var callback = new Callback(action);
+        if (!push(callback)) {
+            callback.run();
+        }
+    }
+
+    // creates a task computed by the supplier once this task is completed
+    @NotNull
+    private <T> ThreadPoolTask<T> then(@NotNull Supplier<T> supplier, @NotNull ContinuationPolicy policy) {
+        checkNotShutDown();
+        var task = new ThreadPoolTask<>(threadPool, supplier, policy, priority);
+        var continuation = new Continuation(task);
+        if (!push(continuation)) {
+            if (isCancelled()) {
+                continuation.cancel();
+            } else {
+                continuation.run();
+            }
+        }
+        return task;
+    }
+
+    private void checkNotShutDown() {
+        if (threadPool.isShutDown()) {
+            throw new IllegalStateException("Thread pool is shut down");
+        }
+    }
+
+    // compute the task's result
+    void execute() {
+        Supplier<R> currentSupplier = supplier;
+        if (state != PENDING || currentSupplier == null) {
+            return;
+        }
+
+        runner = Thread.currentThread();
+        try {
+            // cancel reads the runner after changing the state, recheck to not miss the cancellation
+            if (state != PENDING) {
+                return;
+            }
+            complete(currentSupplier.get(), DONE);
+        } catch (Exception exception) {
+            complete(new LightExecutionException(exception), FAILED);
+        } finally {
+            runner = null;
+            if (state == INTERRUPTING || state == INTERRUPTED) {
+                // do not let the interrupt of the cancellation leak to the next task of the thread
+                while (state == INTERRUPTING) {
+                    Thread.onSpinWait();
+                }
+                Thread.interrupted();
+            }
+        }
+    }
+
+    // publishes the outcome if the task has not been completed yet and runs the registered completions
+    private boolean complete(@Nullable Object outcome, int finalState) {
+        if (!STATE.compareAndSet(this, PENDING, COMPLETING)) {
+            return false;
+        }
+        this.outcome = outcome;
+        supplier = null;
+        state = finalState;
+        runCompletions(false);
+        return true;
+    }
+
+    private void runCompletions(boolean isCancelled) {
+        Completion completions = STACK.getAndSet(this, CLOSED);
+        if (completions == null) {
+            return;
+        }
+        if (completions.next == null) {
+            runCompletion(completions, isCancelled);
+            return;
+        }
+        // the stack is LIFO, reverse it to run the completions in the order they were registered;
+        // it is not relinked in place because timed out waiters may still be unlinking themselves
+        var reversed = new ArrayDeque<Completion>();
+        for (Completion completion = completions; completion != null; completion = completion.next) {
+            reversed.push(completion);
+        }
+        for (Completion completion : reversed) {
+            runCompletion(completion, isCancelled);
+        }
+    }
+
+    private static void runCompletion(@NotNull Completion completion, boolean isCancelled) {
+        if (isCancelled) {
+            completion.cancel();
+        } else {
+            completion.run();
+        }
+    }
+
+    // unlinks the waiter and the other waiters that stopped waiting from the stack, like FutureTask does
+    private void removeWaiter(@NotNull Waiter waiter) {
+        waiter.thread = null;
+        retry:
+        while (true) {
+            Completion predecessor = null;
+            Completion completion = stack;
+            if (completion == CLOSED) {
+                return;
+            }
+            while (completion != null) {
+                Completion successor = completion.next;
+                if (!completion.isDead()) {
+                    predecessor = completion;
+                } else if (predecessor != null) {
+                    predecessor.next = successor;
+                    if (predecessor.isDead()) {
+                        // the predecessor has been unlinked meanwhile
+                        continue retry;
+                    }
+                } else if (!STACK.compareAndSet(this, completion, successor)) {
+                    continue retry;
+                }
+                completion = successor;
+            }
+            return;
+        }
+    }
+
+    // the number of completions in the stack of a task that has not been completed
+    int completionsNumber() {
+        int number = 0;
+        for (Completion completion = stack; completion != null && completion != CLOSED; completion = completion.next) {
+            number++;
+        }
+        return number;
+    }
+
+    // cancels the task iteratively so that long chains of continuations do not overflow the stack
+    private static void cancelDescendant(@NotNull ThreadPoolTask<?> task) {
+        Queue<ThreadPoolTask<?>> queue = pendingCancellations.get();
+        if (queue != null) {
+            queue.add(task);
+            return;
+        }
+
+        queue = new ArrayDeque<>();
+        pendingCancellations.set(queue);
+        try {
+            task.cancel(false, "Parent task was cancelled");
+            ThreadPoolTask<?> next;
+            while ((next = queue.poll()) != null) {
+                next.cancel(false, "Parent task was cancelled");
+            }
+        } finally {
+            pendingCancellations.remove();
+        }
+    }
+
+    // returns false if the task is already completed and the completion has not been added
+    private boolean push(@NotNull Completion completion) {
+        while (true) {
+            Completion head = stack;
+            if (head == CLOSED) {
+                return false;
+            }
+            completion.next = head;
+            if (STACK.compareAndSet(this, head, completion)) {
+                return true;
+            }
+        }
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private R outcome() throws LightExecutionException {
+        if (state >= FAILED) {
+            throw (LightExecutionException) outcome;
+        }
+        return (R) outcome;
+    }
+
+    /** A node of the stack of actions to be run once the task is completed */
+    private abstract static class Completion {
+        private volatile @Nullable Completion next;
+
+        abstract void run();
+
+        /** Checks if the completion can be unlinked from the stack */
+        boolean isDead() {
+            return false;
+        }
+
+        /** Called instead of run if the task is cancelled */
+        void cancel() {
+            run();
+        }
+    }
+
+    private static class Waiter extends Completion {
+        private volatile @Nullable Thread thread;
+
+        private Waiter(@Nullable Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        void run() {
+            Thread waitingThread = thread;
+            if (waitingThread != null) {
+                thread = null;
+                LockSupport.unpark(waitingThread);
+            }
+        }
+
+        @Override
+        boolean isDead() {
+            return thread == null;
+        }
+    }
+
+    private static class Callback extends Completion {
+        private final @NotNull Runnable action;
+
+        private Callback(@NotNull Runnable action) {
+            this.action = action;
+        }
+
+        @Override
+        void run() {
+            action.run();
+        }
+    }
+
+    private static class Continuation extends Completion {
+        private final @NotNull ThreadPoolTask<?> task;
+
+        private Continuation(@NotNull ThreadPoolTask<?> task) {
+            this.task = task;
+        }
+
+        @Override
+        void run() {
+            task.threadPool.runContinuation(task);
+        }
+
+        @Override
+        void cancel() {
+            cancelDescendant(task);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ru.hse.anstkras.threadpool;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Chase-Lev work stealing deque.
+ * Only the owner thread may push and pop elements at the bottom,
+ * any thread may steal elements from the top.
+ * None of the operations take a lock.
+ */
+class WorkStealingDeque<T> {
+    private static final int INITIAL_CAPACITY = 64;
+    private final @NotNull AtomicLong top = new AtomicLong();
+    private volatile long bottom;
+    private volatile @NotNull AtomicReferenceArray<T> buffer = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+
+    /** Adds the element to the bottom of the deque, should be called by the owner only */
+    void push(@NotNull T element) {
+        long currentBottom = bottom;
+        long currentTop = top.get();
+        AtomicReferenceArray<T> array = buffer;
+        if (currentBottom - currentTop >= array.length() - 1) {
+            array = grow(array, currentTop, currentBottom);
+            buffer = array;
+        }
+        array.set(index(array, currentBottom), element);
+        bottom = currentBottom + 1;
+    }
+
+    /**
+     * Removes the element from the bottom of the deque, should be called by the owner only
+     *
+     * @return the removed element or null if the deque is empty
+     */
+    @Nullable
+    T pop() {
+        long newBottom = bottom - 1;
+        AtomicReferenceArray<T> array = buffer;
+        bottom = newBottom;
+        long currentTop = top.get();
+        if (currentTop > newBottom) {
+            bottom = currentTop;
+            return null;
+        }
+
+        int index = index(array, newBottom);
+        T element = array.get(index);
+        if (currentTop == newBottom) {
+            // the last element, thieves may race for it
+            boolean won = top.compareAndSet(currentTop, currentTop + 1);
+            bottom = currentTop + 1;
+            if (!won) {
+                return null;
+            }
+        }
+        array.set(index, null);
+        return element;
+    }
+
+    /**
+     * Removes the element from the top of the deque, may be called by any thread
+     *
+     * @return the removed element or null if the deque is empty or another thread took the element first
+     */
+    @Nullable
+    T steal() {
+        long currentTop = top.get();
+        long currentBottom = bottom;
+        if (currentTop >= currentBottom) {
+            return null;
+        }
+
+        AtomicReferenceArray<T> array = buffer;
+        int index = index(array, currentTop);
+        T element = array.get(index);
+        if (element == null || !top.compareAndSet(currentTop, currentTop + 1)) {
+            return null;
+        }
+        // do not keep the stolen element reachable until the ring wraps around,
+        // the owner may have already put a new element to the slot
+        array.compareAndSet(index, element, null);
+        return element;
+    }
+
+    boolean isEmpty() {
+        return top.get() >= bottom;
+    }
+
+    int size() {
+        long size = bottom - top.get();
+        return size < 0 ? 0 : (int) size;
+    }
+
+    private static int index(@NotNull AtomicReferenceArray<?> array, long position) {
+        return (int) (position & (array.length() - 1));
+    }
+
+    @NotNull
+    private static <T> AtomicReferenceArray<T> grow(@NotNull AtomicReferenceArray<T> array, long from, long to) {
+        var newArray = new AtomicReferenceArray<T>(array.length() * 2);
+        for (long i = from; i < to; i++) {
+            newArray.set(index(newArray, i), array.get(index(array, i)));
+        }
+        return newArray;
+    }
+}
@@ -0,0 +1,201 @@
+package ru.hse.anstkras.threadpool;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Task queue that gives every thread of the pool its own work stealing deque.
+ * Tasks added by the pool threads go to their own deques,
+ * tasks added from outside of the pool go to the common submission queue.
+ * A thread that ran out of tasks steals them from the other threads' deques.
+ */
+class WorkStealingTaskQueue<T> implements TaskQueue<T> {
+    private final @NotNull WorkStealingDeque<T>[] deques;
+    private final @NotNull Queue<T> submissions = new ConcurrentLinkedQueue<>();
+    private final @NotNull Queue<Thread> idleThreads = new ConcurrentLinkedQueue<>();
+    private final @NotNull LongAdder steals = new LongAdder();
+    private final @NotNull LongAdder failedSteals = new LongAdder();
+    private final @NotNull LongAdder parks = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    WorkStealingTaskQueue(int threadsNumber) {
+        deques = (WorkStealingDeque<T>[]) new WorkStealingDeque[threadsNumber];
+        for (int i = 0; i < threadsNumber; i++) {
+            deques[i] = new WorkStealingDeque<>();
+        }
+    }
+
+    @Override
+    public boolean add(@NotNull T task, int workerIndex) {
+        if (workerIndex < 0) {
+            submissions.add(task);
+        } else {
+            deques[workerIndex].push(task);
+        }
+        return wakeUpIdleThread();
+    }
+
+    @Override
+    public int addAll(@NotNull Collection<? extends T> tasks, int workerIndex) {
+        if (workerIndex < 0) {
+            submissions.addAll(tasks);
+        } else {
+            for (T task : tasks) {
+                deques[workerIndex].push(task);
+            }
+        }
+        int wokenThreads = 0;
+        while (wokenThreads < tasks.size() && wakeUpIdleThread()) {
+            wokenThreads++;
+        }
+        return wokenThreads;
+    }
+
+    @Override
+    @NotNull
+    public T take(int workerIndex) throws InterruptedException {
+        T task = poll(workerIndex, false, 0);
+        assert task != null;
+        return task;
+    }
+
+    @Override
+    @Nullable
+    public T poll(int workerIndex, long timeoutNanos) throws InterruptedException {
+        return poll(workerIndex, true, timeoutNanos);
+    }
+
+    // takes a task waiting at most timeoutNanos if the wait is timed
+    @Nullable
+    private T poll(int workerIndex, boolean isTimed, long timeoutNanos) throws InterruptedException {
+        Thread currentThread = Thread.currentThread();
+        long deadline = isTimed ? System.nanoTime() + timeoutNanos : 0;
+        while (true) {
+            T task = deques[workerIndex].pop();
+            if (task == null) {
+                task = findTask(workerIndex);
+            }
+            if (task != null) {
+                return task;
+            }
+
+            // register as idle before the last check so that a concurrent add can not be missed
+            idleThreads.add(currentThread);
+            task = findTask(workerIndex);
+            if (task != null) {
+                if (!idleThreads.remove(currentThread)) {
+                    // somebody has already woken this thread up for another task
+                    wakeUpIdleThread();
+                }
+                return task;
+            }
+
+            long remainingNanos = deadline - System.nanoTime();
+            if (isTimed && remainingNanos <= 0) {
+                if (idleThreads.remove(currentThread)) {
+                    return null;
+                }
+                // somebody has just woken this thread up for a new task, look for it once more
+                continue;
+            }
+            parks.increment();
+            if (isTimed) {
+                LockSupport.parkNanos(this, remainingNanos);
+            } else {
+                LockSupport.park(this);
+            }
+            idleThreads.remove(currentThread);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest task of the submission queue,
+     * or the oldest task of a thread's deque if there are no submitted tasks
+     */
+    @Override
+    @Nullable
+    public T pollOldest() {
+        T task = submissions.poll();
+        if (task != null) {
+            return task;
+        }
+        for (WorkStealingDeque<T> deque : deques) {
+            task = deque.steal();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the task from the submission queue, tasks in the threads' deques
+     * can not be removed and stay there until they are taken
+     */
+    @Override
+    public boolean remove(@NotNull T task) {
+        return submissions.remove(task);
+    }
+
+    @Override
+    public int size() {
+        int size = submissions.size();
+        for (WorkStealingDeque<T> deque : deques) {
+            size += deque.size();
+        }
+        return size;
+    }
+
+    @Override
+    @NotNull
+    public ContentionStatistics getContentionStatistics() {
+        return new ContentionStatistics(0, steals.sum(), failedSteals.sum(), parks.sum());
+    }
+
+    // looks for a task in the submission queue and in the other threads' deques
+    @Nullable
+    private T findTask(int workerIndex) {
+        T task = submissions.poll();
+        if (task != null) {
+            return task;
+        }
+
+        int start = ThreadLocalRandom.current().nextInt(deques.length);
+        for (int i = 0; i < deques.length; i++) {
+            int victim = (start + i) % deques.length;
+            if (victim == workerIndex) {
+                continue;
+            }
+            WorkStealingDeque<T> deque = deques[victim];
+            while (!deque.isEmpty()) {
+                task = deque.steal();
+                if (task != null) {
+                    steals.increment();
+                    return task;
+                }
+                failedSteals.increment();
+            }
+        }
+        return null;
+    }
+
+    // returns true if there was an idle thread to wake up
+    private boolean wakeUpIdleThread() {
+        Thread thread = idleThreads.poll();
+        if (thread == null) {
+            return false;
+        }
+        LockSupport.unpark(thread);
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+package ru.hse.anstkras.threadpool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    @Test
+    void emptyHistogram() {
+        var histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0, histogram.getMaxValue());
+        assertEquals(0.0, histogram.getMean());
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        var histogram = new LatencyHistogram();
+        for (int i = 0; i < 16; i++) {
+            histogram.record(i);
+        }
+        assertEquals(16, histogram.getCount());
+        assertEquals(7, histogram.getValueAtPercentile(50));
+        assertEquals(15, histogram.getMaxValue());
+    }
+
+    @Test
+    void relativeErrorIsBounded() {
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 2; value = value * 3 + 1) {
+            var histogram = new LatencyHistogram();
+            histogram.record(value);
+            long reported = histogram.getMaxValue();
+            assertTrue(reported >= value);
+            assertTrue(reported - value <= value / 16, "value " + value + " reported as " + reported);
+        }
+    }
+
+    @Test
+    void percentiles() {
+        var histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        long median = histogram.getValueAtPercentile(50);
+        assertTrue(median >= 500_000 && median <= 500_000 + 500_000 / 16);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(p99 >= 990_000 && p99 <= 990_000 + 990_000 / 16);
+    }
+
+    @Test
+    void snapshotIsNotChangedByRecording() {
+        var histogram = new LatencyHistogram();
+        histogram.record(42);
+        LatencyHistogram snapshot = histogram.snapshot();
+        histogram.record(42);
+        assertEquals(1, snapshot.getCount());
+        assertEquals(2, histogram.getCount());
+    }
+}
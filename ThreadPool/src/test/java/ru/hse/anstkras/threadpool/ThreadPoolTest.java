@@ -4,7 +4,16 @@ import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -172,4 +181,893 @@ class ThreadPoolTest {
         threadPool.shutdown();
         assertThrows(IllegalStateException.class, () -> threadPool.submit(() -> 42));
     }
-}
\ No newline at end of file
+
+    @RepeatedTest(TESTS_NUMBER)
+    void workStealingManyThreads() throws LightExecutionException {
+        final int size = 100;
+        var threadPool = new ThreadPool(8, SchedulingMode.WORK_STEALING);
+        List<LightFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            final int value = i;
+            futures.add(threadPool.submit(() -> value));
+        }
+        for (int i = 0; i < size; i++) {
+            assertEquals(i, (int) futures.get(i).get());
+        }
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void workStealingThenApply() throws LightExecutionException {
+        var threadPool = new ThreadPool(4, SchedulingMode.WORK_STEALING);
+        LightFuture<Integer> future = threadPool.submit(() -> 42);
+        var futures = new ArrayList<LightFuture<Integer>>();
+        for (int i = 0; i < 100; i++) {
+            final int newValue = i;
+            futures.add(future.thenApply(value -> value + newValue));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(42 + i, (int) futures.get(i).get());
+        }
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void idleThreadsStealTasksOfBusyThread() throws LightExecutionException {
+        var threadPool = new ThreadPool(4, SchedulingMode.WORK_STEALING);
+        LightFuture<List<LightFuture<String>>> parent = threadPool.submit(() -> {
+            List<LightFuture<String>> children = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                children.add(threadPool.submit(() -> Thread.currentThread().getName()));
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+            return children;
+        });
+        for (LightFuture<String> child : parent.get()) {
+            assertNotNull(child.get());
+        }
+        assertTrue(threadPool.getContentionStatistics().getSteals() > 0);
+        threadPool.shutdown();
+    }
+
+    @Test
+    void testGetSchedulingMode() {
+        var threadPool = new ThreadPool(2, SchedulingMode.WORK_STEALING);
+        assertEquals(SchedulingMode.WORK_STEALING, threadPool.getSchedulingMode());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void inlineContinuationRunsOnCompletingThread() throws LightExecutionException {
+        var threadPool = new ThreadPool(4);
+        LightFuture<String> future = threadPool.submit(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ignored) {
+            }
+            return Thread.currentThread().getName();
+        });
+        LightFuture<String> futureThen = future.thenApply(name -> name + " " + Thread.currentThread().getName(),
+                ContinuationPolicy.INLINE);
+        String parentThread = future.get();
+        assertEquals(parentThread + " " + parentThread, futureThen.get());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void longInlineChainDoesNotOverflowStack() throws LightExecutionException {
+        var threadPool = new ThreadPool(2, SchedulingMode.SHARED_QUEUE, ContinuationPolicy.INLINE);
+        LightFuture<Integer> future = threadPool.submit(() -> {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException ignored) {
+            }
+            return 0;
+        });
+        LightFuture<Integer> last = future;
+        for (int i = 0; i < 10000; i++) {
+            last = last.thenApply(value -> value + 1);
+        }
+        assertEquals(10000, (int) last.get());
+        threadPool.shutdown();
+    }
+
+    @Test
+    void testGetContinuationPolicy() {
+        var threadPool = new ThreadPool(1, SchedulingMode.SHARED_QUEUE, ContinuationPolicy.INLINE);
+        assertEquals(ContinuationPolicy.INLINE, threadPool.getContinuationPolicy());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void getWithTimeout() throws Exception {
+        var threadPool = new ThreadPool(1);
+        LightFuture<Integer> future = threadPool.submit(() -> 42);
+        assertEquals(42, (int) future.get(1, TimeUnit.SECONDS));
+        threadPool.shutdown();
+    }
+
+    @Test
+    void getThrowsTimeoutException() {
+        var threadPool = new ThreadPool(1);
+        LightFuture<Integer> future = threadPool.submit(() -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException ignored) {
+            }
+            return 42;
+        });
+        assertThrows(TimeoutException.class, () -> future.get(10, TimeUnit.MILLISECONDS));
+        assertFalse(future.isReady());
+        threadPool.shutdown();
+    }
+
+    @Test
+    void timedOutWaitersAreUnlinked() throws InterruptedException {
+        var threadPool = new ThreadPool(1);
+        var latch = new CountDownLatch(1);
+        LightFuture<Integer> future = threadPool.submit(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException ignored) {
+            }
+            return 42;
+        });
+        for (int i = 0; i < 1000; i++) {
+            assertThrows(TimeoutException.class, () -> future.get(1, TimeUnit.MICROSECONDS));
+        }
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertEquals(0, ((ThreadPoolTask<Integer>) future).completionsNumber());
+        latch.countDown();
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void isCompletedExceptionally() throws LightExecutionException {
+        var threadPool = new ThreadPool(2);
+        LightFuture<Integer> future = threadPool.submit(() -> 42);
+        LightFuture<Integer> failedFuture = threadPool.submit(() -> {
+            throw new IllegalStateException();
+        });
+        future.get();
+        assertThrows(LightExecutionException.class, failedFuture::get);
+        assertFalse(future.isCompletedExceptionally());
+        assertTrue(failedFuture.isCompletedExceptionally());
+        threadPool.shutdown();
+    }
+
+    @Test
+    void getRestoresInterruptStatus() throws LightExecutionException {
+        var threadPool = new ThreadPool(1);
+        LightFuture<Integer> future = threadPool.submit(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+            return 42;
+        });
+        Thread.currentThread().interrupt();
+        assertEquals(42, (int) future.get());
+        assertTrue(Thread.interrupted());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void virtualThreadPoolComputesTasks() throws LightExecutionException {
+        var threadPool = ThreadPool.newVirtualThreadPool(4);
+        List<LightFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final int value = i;
+            futures.add(threadPool.submit(() -> value).thenApply(result -> result * 2));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(2 * i, (int) futures.get(i).get());
+        }
+        assertEquals(SchedulingMode.THREAD_PER_TASK, threadPool.getSchedulingMode());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void virtualThreadPoolLimitsConcurrency() throws InterruptedException {
+        var threadPool = ThreadPool.newVirtualThreadPool(10);
+        final List<Integer> list = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            threadPool.submit(() -> {
+                synchronized (list) {
+                    list.add(1);
+                    list.notifyAll();
+                }
+                try {
+                    Thread.sleep(Long.MAX_VALUE);
+                } catch (InterruptedException ignored) {
+                }
+                return null;
+            });
+        }
+
+        synchronized (list) {
+            while (list.size() != 10) {
+                list.wait();
+            }
+        }
+        Thread.sleep(10);
+        assertEquals(10, list.size());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void submitAll() throws LightExecutionException {
+        for (SchedulingMode mode : SchedulingMode.values()) {
+            var threadPool = new ThreadPool(4, mode);
+            List<Supplier<Integer>> tasks = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final int value = i;
+                tasks.add(() -> value);
+            }
+            List<LightFuture<Integer>> futures = threadPool.submitAll(tasks);
+            assertEquals(100, futures.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i, (int) futures.get(i).get());
+            }
+            threadPool.shutdown();
+        }
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void allOf() throws LightExecutionException {
+        var threadPool = new ThreadPool(4);
+        List<Supplier<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final int value = i;
+            tasks.add(() -> value);
+        }
+        LightFuture<List<Integer>> combined = threadPool.allOf(threadPool.submitAll(tasks));
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), combined.get());
+        assertThrows(IllegalArgumentException.class, () -> threadPool.allOf(Collections.emptyList()));
+        assertThrows(IllegalArgumentException.class, () -> LightFuture.allOf(Collections.emptyList()));
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void allOfFailsIfAnyFutureFails() {
+        var threadPool = new ThreadPool(2);
+        LightFuture<Integer> future = threadPool.submit(() -> 42);
+        LightFuture<Integer> failedFuture = threadPool.submit(() -> {
+            throw new IllegalStateException();
+        });
+        LightFuture<List<Integer>> combined = threadPool.allOf(Arrays.asList(future, failedFuture));
+        assertThrows(LightExecutionException.class, combined::get);
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void invokeAll() {
+        var threadPool = new ThreadPool(3);
+        List<Supplier<Integer>> tasks = Arrays.asList(() -> 1, () -> 2, () -> {
+            throw new IllegalStateException();
+        });
+        List<LightFuture<Integer>> futures = threadPool.invokeAll(tasks);
+        for (LightFuture<Integer> future : futures) {
+            assertTrue(future.isReady());
+        }
+        assertTrue(futures.get(2).isCompletedExceptionally());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void invokeAny() throws LightExecutionException {
+        var threadPool = new ThreadPool(3);
+        List<Supplier<Integer>> tasks = Arrays.asList(() -> {
+            throw new IllegalStateException();
+        }, () -> 42);
+        assertEquals(42, (int) threadPool.invokeAny(tasks));
+        threadPool.shutdown();
+    }
+
+    @Test
+    void invokeAnyCancelsOtherTasks() throws Exception {
+        var threadPool = new ThreadPool(3);
+        var started = new CountDownLatch(2);
+        var interrupted = new CountDownLatch(2);
+        Supplier<Integer> slowTask = () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException exception) {
+                interrupted.countDown();
+            }
+            return 0;
+        };
+        List<Supplier<Integer>> tasks = Arrays.asList(slowTask, slowTask, () -> {
+            try {
+                started.await();
+            } catch (InterruptedException ignored) {
+            }
+            return 42;
+        });
+        assertEquals(42, (int) threadPool.invokeAny(tasks));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void invokeAnyFailsIfAllTasksFail() {
+        var threadPool = new ThreadPool(3);
+        List<Supplier<Integer>> tasks = Arrays.asList(() -> {
+            throw new IllegalStateException();
+        }, () -> {
+            throw new IllegalArgumentException();
+        });
+        assertThrows(LightExecutionException.class, () -> threadPool.invokeAny(tasks));
+        threadPool.shutdown();
+    }
+
+    // occupies the only thread of the pool until the latch is released
+    private static LightFuture<Integer> blockThread(ThreadPool threadPool, CountDownLatch latch) {
+        var started = new CountDownLatch(1);
+        LightFuture<Integer> future = threadPool.submit(() -> {
+            started.countDown();
+            try {
+                latch.await();
+            } catch (InterruptedException ignored) {
+            }
+            return 0;
+        });
+        try {
+            started.await();
+        } catch (InterruptedException ignored) {
+        }
+        return future;
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void abortRejectionPolicy() {
+        var threadPool = new ThreadPool(1, 2, RejectionPolicy.ABORT);
+        var latch = new CountDownLatch(1);
+        blockThread(threadPool, latch);
+        threadPool.submit(() -> 1);
+        threadPool.submit(() -> 2);
+        assertEquals(2, threadPool.getQueueSize());
+        assertThrows(RejectedExecutionException.class, () -> threadPool.submit(() -> 3));
+        assertEquals(1, threadPool.getRejectedTasksNumber());
+        latch.countDown();
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void submitAllRejectsWholeBatchIfQueueIsFull() {
+        var threadPool = new ThreadPool(1, 2, RejectionPolicy.ABORT);
+        var latch = new CountDownLatch(1);
+        blockThread(threadPool, latch);
+        threadPool.submit(() -> 1);
+        List<Supplier<Integer>> tasks = Arrays.asList(() -> 2, () -> 3);
+        assertThrows(RejectedExecutionException.class, () -> threadPool.submitAll(tasks));
+        assertEquals(1, threadPool.getQueueSize());
+        assertEquals(2, threadPool.getRejectedTasksNumber());
+        latch.countDown();
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void trySubmitReturnsNullIfQueueIsFull() throws LightExecutionException {
+        var threadPool = new ThreadPool(1, 1, RejectionPolicy.ABORT);
+        var latch = new CountDownLatch(1);
+        blockThread(threadPool, latch);
+        LightFuture<Integer> accepted = threadPool.trySubmit(() -> 1);
+        assertNotNull(accepted);
+        assertNull(threadPool.trySubmit(() -> 2));
+        latch.countDown();
+        assertEquals(1, (int) accepted.get());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void callerRunsRejectionPolicy() throws LightExecutionException {
+        var threadPool = new ThreadPool(1, 1, RejectionPolicy.CALLER_RUNS);
+        var latch = new CountDownLatch(1);
+        blockThread(threadPool, latch);
+        threadPool.submit(() -> "queued");
+        LightFuture<String> future = threadPool.submit(() -> Thread.currentThread().getName());
+        assertTrue(future.isReady());
+        assertEquals(Thread.currentThread().getName(), future.get());
+        latch.countDown();
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void discardOldestRejectionPolicy() throws LightExecutionException {
+        var threadPool = new ThreadPool(1, 1, RejectionPolicy.DISCARD_OLDEST);
+        var latch = new CountDownLatch(1);
+        blockThread(threadPool, latch);
+        LightFuture<Integer> oldest = threadPool.submit(() -> 1);
+        LightFuture<Integer> newest = threadPool.submit(() -> 2);
+        assertThrows(LightExecutionException.class, oldest::get);
+        latch.countDown();
+        assertEquals(2, (int) newest.get());
+        assertEquals(1, threadPool.getRejectedTasksNumber());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void blockRejectionPolicy() throws Exception {
+        var threadPool = new ThreadPool(1, 1, RejectionPolicy.BLOCK);
+        var latch = new CountDownLatch(1);
+        blockThread(threadPool, latch);
+        threadPool.submit(() -> 1);
+        var submitter = new Thread(() -> threadPool.submit(() -> 2));
+        submitter.start();
+        submitter.join(50);
+        assertTrue(submitter.isAlive());
+        latch.countDown();
+        submitter.join();
+        assertEquals(0, threadPool.getRejectedTasksNumber());
+        threadPool.shutdown();
+    }
+
+    @Test
+    void tryCreateThreadPoolWithNegativeQueueCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new ThreadPool(1, -1, RejectionPolicy.ABORT));
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void thenComposeDoesNotBlockSingleThread() throws LightExecutionException {
+        var threadPool = new ThreadPool(1);
+        LightFuture<Integer> future = threadPool.submit(() -> 20)
+                .thenCompose(value -> threadPool.submit(() -> value + 1))
+                .thenCompose(value -> threadPool.submit(() -> value * 2));
+        assertEquals(42, (int) future.get());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void thenCombine() throws LightExecutionException {
+        var threadPool = new ThreadPool(1);
+        LightFuture<Integer> first = threadPool.submit(() -> {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException ignored) {
+            }
+            return 40;
+        });
+        LightFuture<String> second = threadPool.submit(() -> "2");
+        LightFuture<Integer> combined = first.thenCombine(second, (a, b) -> a + Integer.parseInt(b));
+        assertEquals(42, (int) combined.get());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void thenCombineFailsIfAnyTaskFails() {
+        var threadPool = new ThreadPool(2);
+        LightFuture<Integer> first = threadPool.submit(() -> 40);
+        LightFuture<Integer> second = threadPool.submit(() -> {
+            throw new IllegalStateException();
+        });
+        assertThrows(LightExecutionException.class, () -> first.thenCombine(second, Integer::sum).get());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void handle() throws LightExecutionException {
+        var threadPool = new ThreadPool(2);
+        LightFuture<Integer> future = threadPool.submit(() -> 42);
+        LightFuture<Integer> failedFuture = threadPool.submit(() -> {
+            throw new IllegalStateException();
+        });
+        assertEquals("42", future.handle((value, exception) -> exception == null ? value.toString() : "failed").get());
+        assertEquals("failed", failedFuture.handle((value, exception) -> exception == null ? "ok" : "failed").get());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void exceptionally() throws LightExecutionException {
+        var threadPool = new ThreadPool(2);
+        LightFuture<Integer> future = threadPool.submit(() -> 42);
+        LightFuture<Integer> failedFuture = threadPool.submit(() -> {
+            throw new IllegalStateException();
+        });
+        assertEquals(42, (int) future.exceptionally(exception -> 0).get());
+        assertEquals(0, (int) failedFuture.exceptionally(exception -> 0).get());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void staticAllOfAndAnyOf() throws LightExecutionException {
+        var threadPool = new ThreadPool(2);
+        var latch = new CountDownLatch(1);
+        LightFuture<Integer> slow = threadPool.submit(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException ignored) {
+            }
+            return 1;
+        });
+        LightFuture<Integer> fast = threadPool.submit(() -> 2);
+        assertEquals(2, (int) LightFuture.anyOf(Arrays.asList(slow, fast)).get());
+        latch.countDown();
+        assertEquals(Arrays.asList(1, 2), LightFuture.allOf(Arrays.asList(slow, fast)).get());
+        assertThrows(IllegalArgumentException.class, () -> LightFuture.anyOf(Collections.emptyList()));
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void cancelQueuedTask() {
+        var threadPool = new ThreadPool(1);
+        var latch = new CountDownLatch(1);
+        blockThread(threadPool, latch);
+        LightFuture<Integer> future = threadPool.submit(() -> 42);
+        assertEquals(1, threadPool.getQueueSize());
+        assertTrue(future.cancel(false));
+        assertEquals(0, threadPool.getQueueSize());
+        assertTrue(future.isReady());
+        assertTrue(future.isCancelled());
+        var exception = assertThrows(LightExecutionException.class, future::get);
+        assertTrue(exception.getCause() instanceof CancellationException);
+        assertFalse(future.cancel(false));
+        latch.countDown();
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void cancelCompletedTask() throws LightExecutionException {
+        var threadPool = new ThreadPool(1);
+        LightFuture<Integer> future = threadPool.submit(() -> 42);
+        assertEquals(42, (int) future.get());
+        assertFalse(future.cancel(true));
+        assertFalse(future.isCancelled());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void cancelPropagatesToContinuations() {
+        var threadPool = new ThreadPool(1);
+        var latch = new CountDownLatch(1);
+        blockThread(threadPool, latch);
+        LightFuture<Integer> future = threadPool.submit(() -> 42);
+        LightFuture<Integer> last = future;
+        for (int i = 0; i < 10000; i++) {
+            last = last.thenApply(value -> value + 1);
+        }
+        future.cancel(false);
+        assertTrue(last.isCancelled());
+        latch.countDown();
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void cancelInterruptsRunningTask() throws Exception {
+        var threadPool = new ThreadPool(1);
+        var started = new CountDownLatch(1);
+        var interrupted = new CountDownLatch(1);
+        LightFuture<Integer> future = threadPool.submit(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(Long.MAX_VALUE);
+            } catch (InterruptedException exception) {
+                interrupted.countDown();
+            }
+            return 42;
+        });
+        started.await();
+        assertTrue(future.cancel(true));
+        interrupted.await();
+        assertTrue(future.isCancelled());
+        assertEquals(1, (int) threadPool.submit(() -> Thread.currentThread().isInterrupted() ? 0 : 1).get());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void taskDeadline() throws LightExecutionException {
+        var threadPool = new ThreadPool(1);
+        LightFuture<Integer> slow = threadPool.submit(() -> {
+            try {
+                Thread.sleep(Long.MAX_VALUE);
+            } catch (InterruptedException ignored) {
+            }
+            return 42;
+        }, 20, TimeUnit.MILLISECONDS);
+        LightFuture<Integer> fast = threadPool.submit(() -> 42, 1, TimeUnit.SECONDS);
+        assertThrows(LightExecutionException.class, slow::get);
+        assertTrue(slow.isCancelled());
+        assertEquals(42, (int) fast.get());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void statistics() throws LightExecutionException {
+        var threadPool = new ThreadPool(2);
+        threadPool.setStatisticsEnabled(true);
+        List<LightFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final int value = i;
+            futures.add(threadPool.submit(() -> value));
+        }
+        for (LightFuture<Integer> future : futures) {
+            future.get();
+        }
+        threadPool.shutdown();
+        ThreadPoolStats stats = threadPool.getStats();
+        assertEquals(100, stats.getQueuedTasksNumber());
+        assertEquals(100, stats.getFinishedTasksNumber());
+        assertEquals(100, stats.getWaitTimes().getCount());
+        assertEquals(100, stats.getExecutionTimes().getCount());
+        assertEquals(2, stats.getUtilization().length);
+    }
+
+    @Test
+    void statisticsAreEmptyWhenDisabled() throws LightExecutionException {
+        var threadPool = new ThreadPool(1);
+        threadPool.submit(() -> 42).get();
+        assertFalse(threadPool.isStatisticsEnabled());
+        assertEquals(0, threadPool.getStats().getExecutionTimes().getCount());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void listener() throws LightExecutionException {
+        var threadPool = new ThreadPool(1, 1, RejectionPolicy.ABORT);
+        var queued = new AtomicInteger();
+        var finished = new AtomicInteger();
+        var rejected = new AtomicInteger();
+        var listener = new ThreadPoolListener() {
+            @Override
+            public void onTaskQueued(LightFuture<?> task) {
+                queued.incrementAndGet();
+            }
+
+            @Override
+            public void onTaskFinished(LightFuture<?> task, int workerIndex, long executionTimeNanos) {
+                assertEquals(0, workerIndex);
+                finished.incrementAndGet();
+            }
+
+            @Override
+            public void onTaskRejected(LightFuture<?> task) {
+                rejected.incrementAndGet();
+            }
+        };
+        threadPool.addListener(listener);
+        var latch = new CountDownLatch(1);
+        LightFuture<Integer> blocking = blockThread(threadPool, latch);
+        threadPool.submit(() -> 1);
+        assertNull(threadPool.trySubmit(() -> 2));
+        latch.countDown();
+        blocking.get();
+        threadPool.shutdown();
+        assertEquals(2, queued.get());
+        assertEquals(1, rejected.get());
+        assertTrue(finished.get() >= 1);
+        threadPool.removeListener(listener);
+    }
+
+    @Test
+    void elasticPoolStartsThreadsLazily() throws LightExecutionException {
+        var threadPool = new ThreadPool(2, 4, 1, TimeUnit.SECONDS);
+        assertTrue(threadPool.isElastic());
+        assertEquals(0, threadPool.getLiveThreadsNumber());
+        assertEquals(1, (int) threadPool.submit(() -> 1).get());
+        assertEquals(1, threadPool.getLiveThreadsNumber());
+        assertEquals(1, threadPool.prestartCoreThreads());
+        assertEquals(2, threadPool.getLiveThreadsNumber());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void elasticPoolGrowsUpToMaxThreadsNumber() throws LightExecutionException {
+        var threadPool = new ThreadPool(1, 3, 1, TimeUnit.SECONDS);
+        var latch = new CountDownLatch(1);
+        var blocking = new ArrayList<LightFuture<Integer>>();
+        for (int i = 0; i < 3; i++) {
+            blocking.add(blockThread(threadPool, latch));
+        }
+        assertEquals(3, threadPool.getLiveThreadsNumber());
+        LightFuture<Integer> queued = threadPool.submit(() -> 1);
+        assertEquals(3, threadPool.getLiveThreadsNumber());
+        assertEquals(1, threadPool.getQueueSize());
+        latch.countDown();
+        assertEquals(1, (int) queued.get());
+        for (LightFuture<Integer> future : blocking) {
+            assertEquals(0, (int) future.get());
+        }
+        threadPool.shutdown();
+    }
+
+    @Test
+    void elasticPoolStopsIdleThreadsAfterKeepAlive() throws InterruptedException {
+        for (SchedulingMode schedulingMode : new SchedulingMode[]{SchedulingMode.SHARED_QUEUE,
+                                                                  SchedulingMode.WORK_STEALING}) {
+            var threadPool = new ThreadPool(1, 3, 20, TimeUnit.MILLISECONDS, schedulingMode);
+            var latch = new CountDownLatch(1);
+            for (int i = 0; i < 3; i++) {
+                blockThread(threadPool, latch);
+            }
+            assertEquals(3, threadPool.getLiveThreadsNumber());
+            latch.countDown();
+            for (int i = 0; i < 100 && threadPool.getLiveThreadsNumber() > 1; i++) {
+                Thread.sleep(20);
+            }
+            assertEquals(1, threadPool.getLiveThreadsNumber());
+            threadPool.shutdown();
+        }
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void elasticPoolComputesAllTasks() throws LightExecutionException {
+        for (SchedulingMode schedulingMode : new SchedulingMode[]{SchedulingMode.SHARED_QUEUE,
+                                                                  SchedulingMode.WORK_STEALING}) {
+            var threadPool = new ThreadPool(0, 4, 1, TimeUnit.MILLISECONDS, schedulingMode);
+            var futures = new ArrayList<LightFuture<Integer>>();
+            for (int i = 0; i < 100; i++) {
+                int value = i;
+                futures.add(threadPool.submit(() -> value).thenApply(x -> x * 2));
+            }
+            for (int i = 0; i < 100; i++) {
+                assertEquals(2 * i, (int) futures.get(i).get());
+            }
+            assertTrue(threadPool.getLiveThreadsNumber() <= 4);
+            threadPool.shutdown();
+        }
+    }
+
+    @Test
+    void elasticPoolRejectsInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new ThreadPool(3, 2, 1, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> new ThreadPool(-1, 2, 1, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> new ThreadPool(1, 2, 0, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new ThreadPool(1, 2, 1, TimeUnit.SECONDS, SchedulingMode.THREAD_PER_TASK));
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void highPriorityTaskOvertakesQueuedTasks() throws LightExecutionException {
+        var threadPool = new ThreadPool(1);
+        var latch = new CountDownLatch(1);
+        blockThread(threadPool, latch);
+        var order = Collections.synchronizedList(new ArrayList<Integer>());
+        var futures = new ArrayList<LightFuture<Boolean>>();
+        for (int i = 0; i < 5; i++) {
+            int value = i;
+            futures.add(threadPool.submit(() -> order.add(value), Priority.LOW));
+        }
+        futures.add(threadPool.submit(() -> order.add(-1), Priority.HIGH));
+        latch.countDown();
+        for (LightFuture<Boolean> future : futures) {
+            future.get();
+        }
+        assertEquals(Arrays.asList(-1, 0, 1, 2, 3, 4), order);
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void lowPriorityTaskIsNotStarved() throws LightExecutionException {
+        var threadPool = new ThreadPool(1);
+        var latch = new CountDownLatch(1);
+        blockThread(threadPool, latch);
+        var order = Collections.synchronizedList(new ArrayList<Integer>());
+        var futures = new ArrayList<LightFuture<Boolean>>();
+        futures.add(threadPool.submit(() -> order.add(-1), Priority.LOW));
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            futures.add(threadPool.submit(() -> order.add(value), Priority.HIGH));
+        }
+        latch.countDown();
+        for (LightFuture<Boolean> future : futures) {
+            future.get();
+        }
+        assertTrue(order.indexOf(-1) <= Priority.HIGH.getWeight() + 1);
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void continuationInheritsPriority() throws LightExecutionException {
+        var threadPool = new ThreadPool(1);
+        LightFuture<Integer> future = threadPool.submit(() -> 1, Priority.HIGH).thenApply(x -> x + 1);
+        assertEquals(2, (int) future.get());
+        assertEquals(Priority.HIGH, ((ThreadPoolTask<Integer>) future).getPriority());
+        threadPool.shutdown();
+    }
+
+    @Test
+    void statsRecordWaitTimesByPriority() throws LightExecutionException {
+        var threadPool = new ThreadPool(2);
+        threadPool.setStatisticsEnabled(true);
+        threadPool.submit(() -> 1, Priority.HIGH).get();
+        threadPool.submit(() -> 2, Priority.LOW).get();
+        threadPool.submit(() -> 3, Priority.LOW).get();
+        ThreadPoolStats stats = threadPool.getStats();
+        assertEquals(1, stats.getWaitTimes(Priority.HIGH).getCount());
+        assertEquals(0, stats.getWaitTimes(Priority.NORMAL).getCount());
+        assertEquals(2, stats.getWaitTimes(Priority.LOW).getCount());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void tasksWithEqualKeysRunInSubmissionOrder() throws LightExecutionException {
+        for (SchedulingMode schedulingMode : SchedulingMode.values()) {
+            var threadPool = new ThreadPool(4, schedulingMode);
+            var orders = new ArrayList<List<Integer>>();
+            var isRunning = new AtomicInteger[8];
+            var futures = new ArrayList<LightFuture<Boolean>>();
+            for (int key = 0; key < 8; key++) {
+                orders.add(new ArrayList<>());
+                isRunning[key] = new AtomicInteger();
+            }
+            for (int i = 0; i < 100; i++) {
+                for (int key = 0; key < 8; key++) {
+                    int currentKey = key;
+                    int value = i;
+                    futures.add(threadPool.submit("key" + key, () -> {
+                        assertEquals(1, isRunning[currentKey].incrementAndGet());
+                        boolean isAdded = orders.get(currentKey).add(value);
+                        isRunning[currentKey].decrementAndGet();
+                        return isAdded;
+                    }));
+                }
+            }
+            for (LightFuture<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+            for (List<Integer> order : orders) {
+                for (int i = 0; i < 100; i++) {
+                    assertEquals(i, (int) order.get(i));
+                }
+            }
+            threadPool.shutdown();
+        }
+    }
+
+    @Test
+    void tasksWithDifferentKeysRunInParallel() throws Exception {
+        var threadPool = new ThreadPool(2);
+        var latch = new CountDownLatch(1);
+        LightFuture<Boolean> waiting = threadPool.submit("a", () -> {
+            try {
+                return latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                return false;
+            }
+        });
+        threadPool.submit("b", () -> {
+            latch.countDown();
+            return 0;
+        });
+        assertTrue(waiting.get());
+        threadPool.shutdown();
+    }
+
+    @RepeatedTest(TESTS_NUMBER)
+    void cancelledKeyedTaskIsSkipped() throws LightExecutionException {
+        var threadPool = new ThreadPool(1, 2, RejectionPolicy.ABORT);
+        var started = new CountDownLatch(1);
+        var latch = new CountDownLatch(1);
+        LightFuture<Boolean> first = threadPool.submit("key", () -> {
+            started.countDown();
+            try {
+                return latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                return false;
+            }
+        });
+        try {
+            started.await();
+        } catch (InterruptedException ignored) {
+        }
+        LightFuture<Integer> second = threadPool.submit("key", () -> 2);
+        LightFuture<Integer> third = threadPool.submit("key", () -> 3);
+        assertTrue(second.cancel(false));
+        latch.countDown();
+        assertTrue(first.get());
+        assertEquals(3, (int) third.get());
+        assertTrue(second.isCancelled());
+        var secondLatch = new CountDownLatch(1);
+        blockThread(threadPool, secondLatch);
+        assertNotNull(threadPool.trySubmit(() -> 4));
+        assertNotNull(threadPool.trySubmit(() -> 5));
+        secondLatch.countDown();
+        threadPool.shutdown();
+    }
+}
@@ -0,0 +1,142 @@
+package ru.hse.anstkras.threadpool.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+import ru.hse.anstkras.threadpool.LightExecutionException;
+import ru.hse.anstkras.threadpool.LightFuture;
+import ru.hse.anstkras.threadpool.SchedulingMode;
+import ru.hse.anstkras.threadpool.ThreadPool;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Common interface of the executors compared by the benchmarks.
+ * ThreadPool is used directly, java.util.concurrent executors are used through CompletableFuture
+ * with asynchronous continuations so that every continuation is scheduled like in ThreadPool
+ */
+interface BenchmarkExecutor {
+    @NotNull
+    <T> Task<T> submit(@NotNull Supplier<T> supplier);
+
+    void shutdown();
+
+    /** Result of a submitted task */
+    interface Task<T> {
+        @NotNull
+        <R> Task<R> thenApply(@NotNull Function<? super T, ? extends R> function);
+
+        T get() throws Exception;
+    }
+
+    /** Creates the executor of the given kind with the given number of threads */
+    @NotNull
+    static BenchmarkExecutor create(@NotNull ExecutorKind kind, int threadsNumber) {
+        switch (kind) {
+            case SHARED_QUEUE:
+                return new LightExecutor(new ThreadPool(threadsNumber, SchedulingMode.SHARED_QUEUE));
+            case WORK_STEALING:
+                return new LightExecutor(new ThreadPool(threadsNumber, SchedulingMode.WORK_STEALING));
+            case FORK_JOIN_POOL:
+                return new CompletableExecutor(new ForkJoinPool(threadsNumber));
+            case THREAD_POOL_EXECUTOR:
+                return new CompletableExecutor(new ThreadPoolExecutor(threadsNumber, threadsNumber,
+                                                                      0, TimeUnit.MILLISECONDS,
+                                                                      new LinkedBlockingQueue<>()));
+            default:
+                throw new IllegalArgumentException("Unknown executor kind " + kind);
+        }
+    }
+
+    /** Kinds of the compared executors */
+    enum ExecutorKind {
+        SHARED_QUEUE,
+        WORK_STEALING,
+        FORK_JOIN_POOL,
+        THREAD_POOL_EXECUTOR
+    }
+
+    class LightExecutor implements BenchmarkExecutor {
+        private final @NotNull ThreadPool threadPool;
+
+        LightExecutor(@NotNull ThreadPool threadPool) {
+            this.threadPool = threadPool;
+        }
+
+        @Override
+        @NotNull
+        public <T> Task<T> submit(@NotNull Supplier<T> supplier) {
+            return new LightTask<>(threadPool.submit(supplier));
+        }
+
+        @Override
+        public void shutdown() {
+            threadPool.shutdown();
+        }
+    }
+
+    class LightTask<T> implements Task<T> {
+        private final @NotNull LightFuture<T> future;
+
+        LightTask(@NotNull LightFuture<T> future) {
+            this.future = future;
+        }
+
+        @Override
+        @NotNull
+        public <R> Task<R> thenApply(@NotNull Function<? super T, ? extends R> function) {
+            return new LightTask<>(future.thenApply(function::apply));
+        }
+
+        @Override
+        public T get() throws LightExecutionException {
+            return future.get();
+        }
+    }
+
+    class CompletableExecutor implements BenchmarkExecutor {
+        private final @NotNull ExecutorService executorService;
+
+        CompletableExecutor(@NotNull ExecutorService executorService) {
+            this.executorService = executorService;
+        }
+
+        @Override
+        @NotNull
+        public <T> Task<T> submit(@NotNull Supplier<T> supplier) {
+            return new CompletableTask<>(CompletableFuture.supplyAsync(supplier, executorService), executorService);
+        }
+
+        @Override
+        public void shutdown() {
+            executorService.shutdownNow();
+        }
+    }
+
+    class CompletableTask<T> implements Task<T> {
+        private final @NotNull CompletableFuture<T> future;
+        private final @NotNull ExecutorService executorService;
+
+        CompletableTask(@NotNull CompletableFuture<T> future, @NotNull ExecutorService executorService) {
+            this.future = future;
+            this.executorService = executorService;
+        }
+
+        @Override
+        @NotNull
+        public <R> Task<R> thenApply(@NotNull Function<? super T, ? extends R> function) {
+            return new CompletableTask<>(future.thenApplyAsync(function, executorService), executorService);
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            return future.get();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ru.hse.anstkras.threadpool.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import ru.hse.anstkras.threadpool.LightFuture;
+import ru.hse.anstkras.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the platform thread pool and the thread per task pool on tasks that spend most of their time blocked.
+ * The thread per task pool uses platform threads if the runtime does not support virtual threads
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class BlockingWorkloadBenchmark {
+    private static final int TASKS_NUMBER = 1000;
+    private static final int BLOCKING_TIME_MILLIS = 10;
+    private static final int CONCURRENCY = 100;
+
+    @Param({"PLATFORM_THREADS", "THREAD_PER_TASK", "UNLIMITED_THREAD_PER_TASK"})
+    public PoolKind kind;
+
+    private ThreadPool threadPool;
+
+    public enum PoolKind {
+        PLATFORM_THREADS,
+        THREAD_PER_TASK,
+        UNLIMITED_THREAD_PER_TASK
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (kind) {
+            case PLATFORM_THREADS:
+                threadPool = new ThreadPool(CONCURRENCY);
+                break;
+            case THREAD_PER_TASK:
+                threadPool = ThreadPool.newVirtualThreadPool(CONCURRENCY);
+                break;
+            default:
+                threadPool = ThreadPool.newVirtualThreadPool(TASKS_NUMBER);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        threadPool.shutdown();
+    }
+
+    @Benchmark
+    public long blockingTasks() throws Exception {
+        List<LightFuture<Integer>> futures = new ArrayList<>(TASKS_NUMBER);
+        for (int i = 0; i < TASKS_NUMBER; i++) {
+            int value = i;
+            futures.add(threadPool.submit(() -> {
+                try {
+                    Thread.sleep(BLOCKING_TIME_MILLIS);
+                } catch (InterruptedException ignored) {
+                }
+                return value;
+            }));
+        }
+        long sum = 0;
+        for (LightFuture<Integer> future : futures) {
+            sum += future.get();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,29 @@
+package ru.hse.anstkras.threadpool.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures the time from submitting a task to getting the result of a chain of thenApply continuations */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ContinuationChainBenchmark {
+    @Param({"1", "16"})
+    public int chainLength;
+
+    @Benchmark
+    public int thenApplyChain(ExecutorState state) throws Exception {
+        BenchmarkExecutor.Task<Integer> task = state.executor.submit(() -> 0);
+        for (int i = 0; i < chainLength; i++) {
+            task = task.thenApply(x -> x + 1);
+        }
+        return task.get();
+    }
+}
@@ -0,0 +1,30 @@
+package ru.hse.anstkras.threadpool.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** Executor shared by all the benchmark threads, created for every combination of kind and threads number */
+@State(Scope.Benchmark)
+public class ExecutorState {
+    @Param({"SHARED_QUEUE", "WORK_STEALING", "FORK_JOIN_POOL", "THREAD_POOL_EXECUTOR"})
+    public BenchmarkExecutor.ExecutorKind kind;
+
+    @Param({"1", "4", "8"})
+    public int threadsNumber;
+
+    BenchmarkExecutor executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = BenchmarkExecutor.create(kind, threadsNumber);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,43 @@
+package ru.hse.anstkras.threadpool.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Measures splitting a job into small CPU bound tasks and joining their results */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class FanOutFanInBenchmark {
+    @Param({"16", "256"})
+    public int tasksNumber;
+
+    @Param({"100"})
+    public int tokensPerTask;
+
+    @Benchmark
+    public long fanOutFanIn(ExecutorState state) throws Exception {
+        List<BenchmarkExecutor.Task<Integer>> tasks = new ArrayList<>(tasksNumber);
+        for (int i = 0; i < tasksNumber; i++) {
+            int value = i;
+            tasks.add(state.executor.submit(() -> {
+                Blackhole.consumeCPU(tokensPerTask);
+                return value;
+            }));
+        }
+        long sum = 0;
+        for (BenchmarkExecutor.Task<Integer> task : tasks) {
+            sum += task.get();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,65 @@
+package ru.hse.anstkras.threadpool.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import ru.hse.anstkras.threadpool.Priority;
+import ru.hse.anstkras.threadpool.ThreadPool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the latency of interactive tasks submitted while a backlog of batch tasks saturates the pool,
+ * every invocation tops up the backlog before submitting the interactive task
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PriorityWorkloadBenchmark {
+    private static final int THREADS_NUMBER = 4;
+    private static final int BACKLOG_SIZE = 256;
+    private static final int BATCH_TASK_TIME_MICROS = 50;
+
+    @Param({"NORMAL", "LOW"})
+    public Priority batchPriority;
+
+    @Param({"NORMAL", "HIGH"})
+    public Priority interactivePriority;
+
+    private final AtomicInteger queuedBatchTasks = new AtomicInteger();
+    private ThreadPool threadPool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        threadPool = new ThreadPool(THREADS_NUMBER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        threadPool.shutdown();
+    }
+
+    @Benchmark
+    public int interactiveTask() throws Exception {
+        while (queuedBatchTasks.get() < BACKLOG_SIZE) {
+            queuedBatchTasks.incrementAndGet();
+            threadPool.submit(() -> {
+                long end = System.nanoTime() + BATCH_TASK_TIME_MICROS * 1000L;
+                while (System.nanoTime() < end) {
+                    Thread.onSpinWait();
+                }
+                queuedBatchTasks.decrementAndGet();
+                return 0;
+            }, batchPriority);
+        }
+        return threadPool.submit(() -> 1, interactivePriority).get();
+    }
+}
@@ -0,0 +1,32 @@
+package ru.hse.anstkras.threadpool.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many trivial tasks per second can be submitted by four submitting threads.
+ * Every invocation submits a batch of tasks and waits for them so that the queue does not grow unboundedly
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class SubmitThroughputBenchmark {
+    private static final int BATCH_SIZE = 256;
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int submit(ExecutorState state) throws Exception {
+        BenchmarkExecutor.Task<Integer> last = null;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            int value = i;
+            last = state.executor.submit(() -> value);
+        }
+        return last.get();
+    }
+}
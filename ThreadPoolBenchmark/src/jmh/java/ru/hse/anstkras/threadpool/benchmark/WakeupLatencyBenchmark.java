@@ -0,0 +1,21 @@
+package ru.hse.anstkras.threadpool.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round trip of a single task through an idle pool:
+ * waking up a pool thread to run the task and waking up the caller blocked in get()
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WakeupLatencyBenchmark {
+    @Benchmark
+    public int submitAndGet(ExecutorState state) throws Exception {
+        return state.executor.submit(() -> 1).get();
+    }
+}